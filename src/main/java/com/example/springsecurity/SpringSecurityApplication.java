@@ -1,6 +1,11 @@
 package com.example.springsecurity;
 
+import com.example.springsecurity.utility.AdaptiveBCryptPasswordEncoder;
+import com.example.springsecurity.utility.BoundedPasswordEncoder;
 import com.example.springsecurity.utility.JWTTokenProvider;
+import com.example.springsecurity.utility.Telemetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
@@ -19,12 +24,17 @@ public class SpringSecurityApplication {
     }
 
     @Bean
-    public JWTTokenProvider jwtTokenProvider(){
-        return new JWTTokenProvider();
+    public JWTTokenProvider jwtTokenProvider(Telemetry telemetry){
+        return new JWTTokenProvider(telemetry);
     }
 
     @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder(){
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder bCryptPasswordEncoder(@Value("${security.bcrypt.target-hash-ms:0}") long targetHashMillis){
+        return AdaptiveBCryptPasswordEncoder.forTargetHashTime(targetHashMillis);
+    }
+
+    @Bean
+    public BoundedPasswordEncoder boundedPasswordEncoder(BCryptPasswordEncoder bCryptPasswordEncoder, MeterRegistry meterRegistry){
+        return new BoundedPasswordEncoder(bCryptPasswordEncoder, meterRegistry);
     }
 }
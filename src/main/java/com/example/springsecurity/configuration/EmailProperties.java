@@ -0,0 +1,28 @@
+package com.example.springsecurity.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import static com.example.springsecurity.constants.EmailConstant.*;
+
+//  smtp settings and outbox tuning, bound from app.mail.* in application.properties
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.mail")
+public class EmailProperties {
+    private String protocol = SIMPLE_MAIL_TRANSFER_PROTOCOL;
+    private String host = GMAIL_SMTP_SERVER;
+    private int port = DEFAULT_PORT;
+    private boolean auth = true;
+    private boolean startTls = true;
+    private String username;
+    private String password;
+    private int batchSize = 50;
+    private long pollIntervalMs = 2000;
+    private int maxAttempts = 8;
+    private long initialBackoffMs = 5000;
+    private long maxBackoffMs = 3600000;
+    //  how long a claimed row stays invisible to other dispatchers, longer than sending a whole batch takes
+    private long claimLeaseMs = 300000;
+}
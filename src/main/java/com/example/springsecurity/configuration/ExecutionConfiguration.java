@@ -0,0 +1,80 @@
+package com.example.springsecurity.configuration;
+
+import com.example.springsecurity.enumeration.ExecutionMode;
+import com.example.springsecurity.utility.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+//  picks the executor behind Callable and StreamingResponseBody handlers, and in virtual mode the one behind tomcat
+@Configuration
+public class ExecutionConfiguration implements WebMvcConfigurer {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private ExecutionProperties executionProperties;
+    private ExecutionMode mode;
+    private ExecutorService virtualThreadExecutor;
+
+    @Autowired
+    public ExecutionConfiguration(ExecutionProperties executionProperties) {
+        this.executionProperties = executionProperties;
+        this.mode = executionProperties.getMode();
+        if (mode == ExecutionMode.VIRTUAL) {
+            this.virtualThreadExecutor = VirtualThreads.newPerTaskExecutor().orElse(null);
+            if (virtualThreadExecutor == null) {
+                LOGGER.warn("Virtual threads are not available on Java {}, falling back to async execution",
+                        System.getProperty("java.version"));
+                this.mode = ExecutionMode.ASYNC;
+            }
+        }
+        LOGGER.info("Request handlers run in {} mode", mode);
+    }
+
+    @Bean
+    public AsyncTaskExecutor requestHandlerExecutor() {
+        switch (mode) {
+            case VIRTUAL:
+                return new TaskExecutorAdapter(virtualThreadExecutor);
+            case ASYNC:
+                ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+                executor.setThreadNamePrefix("request-handler-");
+                executor.setCorePoolSize(executionProperties.getAsyncCorePoolSize());
+                executor.setMaxPoolSize(executionProperties.getAsyncMaxPoolSize());
+                executor.setQueueCapacity(executionProperties.getAsyncQueueCapacity());
+                //  a full pool pushes back on the tomcat worker instead of queueing without bound
+                executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+                return executor;
+            default:
+                //  runs the handler inline on the tomcat worker, the same as a handler that returns its result directly
+                return new TaskExecutorAdapter(Runnable::run);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (mode == ExecutionMode.VIRTUAL) {
+                protocolHandler.setExecutor(virtualThreadExecutor);
+            }
+        };
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(requestHandlerExecutor());
+        if (executionProperties.getTimeoutMs() > 0) {
+            configurer.setDefaultTimeout(executionProperties.getTimeoutMs());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.springsecurity.configuration;
+
+import com.example.springsecurity.enumeration.ExecutionMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+//  how blocking request handlers are executed, bound from app.execution.* in application.properties
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.execution")
+public class ExecutionProperties {
+    private ExecutionMode mode = ExecutionMode.BLOCKING;
+    private int asyncCorePoolSize = 32;
+    private int asyncMaxPoolSize = 256;
+    private int asyncQueueCapacity = 1000;
+    //  0 keeps the servlet container's async timeout
+    private long timeoutMs = 0;
+}
@@ -0,0 +1,33 @@
+package com.example.springsecurity.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//  per endpoint limits, bound from security.rate-limit.* in application.properties
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "security.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long maxTrackedKeys = 100000;
+    private long idleExpiryMinutes = 10;
+    private List<Rule> rules = new ArrayList<>();
+
+    //  address limits key on the remote address. behind a proxy or load balancer that is the proxy, so all clients
+    //  share one bucket unless server.forward-headers-strategy is set to native or framework
+    @Data
+    public static class Rule {
+        private String name;
+        private String path;
+        private String method;
+        private long requestsPerMinute;
+        private long burst;
+        //  username limits protect one account from being hammered through many addresses
+        private long usernameRequestsPerMinute;
+        private long usernameBurst;
+    }
+}
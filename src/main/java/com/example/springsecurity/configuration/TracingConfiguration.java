@@ -0,0 +1,52 @@
+package com.example.springsecurity.configuration;
+
+import com.example.springsecurity.utility.Telemetry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//  an OpenTelemetry SDK feeding the configured exporter. with "none" spans are still created, so trace context
+//  flows through nested calls, but nothing leaves the process. defining a SpanExporter bean replaces the choice
+@Configuration
+public class TracingConfiguration {
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+    @Bean
+    @ConditionalOnMissingBean(SpanExporter.class)
+    public SpanExporter spanExporter(TracingProperties tracingProperties) {
+        if ("logging".equalsIgnoreCase(tracingProperties.getExporter())) {
+            return LoggingSpanExporter.create();
+        }
+        return SpanExporter.composite();
+    }
+
+    @Bean(destroyMethod = "close")
+    public SdkTracerProvider sdkTracerProvider(TracingProperties tracingProperties, SpanExporter spanExporter) {
+        return SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(Attributes.of(SERVICE_NAME, tracingProperties.getServiceName()))))
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(tracingProperties.getSampleRatio())))
+                .addSpanProcessor(BatchSpanProcessor.builder(spanExporter).build())
+                .build();
+    }
+
+    @Bean
+    public OpenTelemetry openTelemetry(SdkTracerProvider sdkTracerProvider) {
+        return OpenTelemetrySdk.builder().setTracerProvider(sdkTracerProvider).build();
+    }
+
+    @Bean
+    public Telemetry telemetry(MeterRegistry meterRegistry, OpenTelemetry openTelemetry) {
+        return new Telemetry(meterRegistry, openTelemetry);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.springsecurity.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+//  span export settings, bound from app.tracing.* in application.properties
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.tracing")
+public class TracingProperties {
+    //  none or logging, any other SpanExporter bean takes precedence over both
+    private String exporter = "none";
+    private String serviceName = "spring-security";
+    private double sampleRatio = 1.0;
+}
@@ -0,0 +1,115 @@
+package com.example.springsecurity.configuration;
+
+import com.example.springsecurity.enumeration.Role;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.springsecurity.constants.UserImplConstants.DROP_USER_AUTHORITIES_PROPERTY;
+
+//  authorities used to be stored per user as a java-serialized String[] next to the role. they are now derived from
+//  the role, so rows whose role does not name a Role get it back from their stored authorities, then the column is
+//  dropped. ddl-auto=update never drops columns. dropping is irreversible, so it only runs when
+//  app.migration.drop-user-authorities=true is set for one startup, and once the column is gone this does nothing
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = DROP_USER_AUTHORITIES_PROPERTY, havingValue = "true")
+public class UserAuthoritiesMigration {
+    private static final String USER_TABLE = "user";
+    private static final String AUTHORITIES_COLUMN = "authorities";
+    private static final String SELECT_LEGACY_ROWS = "select id, role, authorities from user where authorities is not null";
+    private static final String UPDATE_ROLE = "update user set role = ? where id = ?";
+    private static final String DROP_AUTHORITIES = "alter table user drop column authorities";
+    //  the column only ever held String[], anything else in the stream is rejected before it is instantiated
+    private static final ObjectInputFilter STRING_ARRAY_ONLY = ObjectInputFilter.Config.createFilter(
+            "java.lang.String;maxdepth=2;maxarray=256;!*");
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserAuthoritiesMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!hasAuthoritiesColumn()) {
+            return;
+        }
+        try {
+            int restored = restoreMissingRoles();
+            jdbcTemplate.execute(DROP_AUTHORITIES);
+            LOGGER.info("Dropped user.authorities, restored the role of {} users from it", restored);
+        } catch (DataAccessException e) {
+            //  another node starting at the same time may have dropped it first, the role updates are idempotent
+            if (hasAuthoritiesColumn()) {
+                throw e;
+            }
+            LOGGER.info("user.authorities was dropped by another node");
+        }
+    }
+
+    private int restoreMissingRoles() {
+        int restored = 0;
+        for (Map<String, Object> row : jdbcTemplate.queryForList(SELECT_LEGACY_ROWS)) {
+            if (Role.fromName((String) row.get("role")) != null) {
+                continue;
+            }
+            Role role = roleOf(row.get("id"), (byte[]) row.get("authorities"));
+            if (role != null) {
+                restored += jdbcTemplate.update(UPDATE_ROLE, role.name(), row.get("id"));
+            }
+        }
+        return restored;
+    }
+
+    private boolean hasAuthoritiesColumn() {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            //  identifier case differs between databases, so the columns are matched by name ignoring case
+            try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, null, null)) {
+                while (columns.next()) {
+                    if (USER_TABLE.equalsIgnoreCase(columns.getString("TABLE_NAME"))
+                            && AUTHORITIES_COLUMN.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        });
+    }
+
+    //  the role whose authorities equal the stored ones, null when none does and the row is left for an admin
+    private Role roleOf(Object id, byte[] serialized) {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            in.setObjectInputFilter(STRING_ARRAY_ONLY);
+            List<String> authorities = Arrays.asList((String[]) in.readObject());
+            for (Role role : Role.values()) {
+                if (Arrays.asList(role.getUserAuthorities()).equals(authorities)) {
+                    return role;
+                }
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.warn("Could not read the stored authorities of user {}: {}", id, e.getMessage());
+            return null;
+        }
+        LOGGER.warn("User {} has no valid role and its authorities match none, it is left without authorities", id);
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.springsecurity.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+import static com.example.springsecurity.constants.UserImplConstants.USER_ID_ALLOCATION_SIZE;
+
+//  user ids used to come from IDENTITY. the sequence table hibernate creates starts at 1, so on a database that
+//  already has users it is moved past the highest id once, before the first insert can draw from it.
+//  it depends on the EntityManagerFactory so it runs after hibernate has created the table
+@Component
+@DependsOn("entityManagerFactory")
+public class UserSequenceInitializer {
+    private static final String ADVANCE_SEQUENCE = "update user_sequence set next_val = "
+            + "(select coalesce(max(id), 0) + ? from user) where next_val <= (select coalesce(max(id), 0) from user)";
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public UserSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void advancePastExistingIds() {
+        //  one allocation block of headroom, the pooled optimizer hands out ids below the stored value
+        if (jdbcTemplate.update(ADVANCE_SEQUENCE, USER_ID_ALLOCATION_SIZE + 1) > 0) {
+            LOGGER.info("Moved user_sequence past the existing user ids");
+        }
+    }
+}
@@ -10,5 +10,22 @@ public class FileConstant {
     public static final String DOT = ".";
     public static final String FORWARD_SLASH = "/";
     public static final String TEMP_PROFILE_IMAGE_BASE_URL = "https://robohash.org/";
+    public static final String AVATAR_FOLDER = System.getProperty("user.home") + "/mySpringSecurityApp/avatars/";
+    public static final int AVATAR_SIZE = 120;
+    public static final long AVATAR_MEMORY_CACHE_BYTES = 16 * 1024 * 1024;
+    public static final int AVATAR_DISK_CACHE_FILES = 50000;
+    public static final long AVATAR_DISK_TRIM_INTERVAL_MS = 10 * 60 * 1000;
+    public static final int IMAGE_PROCESSING_THREADS = 2;
+    public static final int IMAGE_PROCESSING_QUEUE_CAPACITY = 100;
+    public static final String PROFILE_IMAGE_CACHE_CONTROL = "public, max-age=3600, must-revalidate";
+    public static final String USER_BLOB_PATH = "/user/blob/";
+    public static final String BLOB_FOLDER = USER_FOLDER + "blobs/";
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    public static final long BLOB_GC_INTERVAL_MS = 60 * 60 * 1000;
+    public static final long MAX_IMAGE_UPLOAD_BYTES = 5 * 1024 * 1024; //keep in step with spring.servlet.multipart.max-file-size
+    public static final int UPLOAD_BUFFER_BYTES = 64 * 1024;
+    public static final String IMAGE_TOO_LARGE = "Profile images can not be larger than 5MB";
+    public static final String UNSUPPORTED_IMAGE_TYPE = "Profile images must be JPEG, PNG or GIF files";
+    public static final long BLOB_GC_GRACE_MS = 24 * 60 * 60 * 1000; //unreferenced blobs are kept a day in case an upload is still pointing at them
 
 }
@@ -0,0 +1,11 @@
+package com.example.springsecurity.constants;
+
+public class PaginationConstant {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final String NEXT_CURSOR_HEADER = "Next-Cursor";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String USER_EXPORT_HEADER = "id,userId,firstname,lastname,username,email,role,isActive,isNonLocked,joinDate,lastLoginDate\n";
+    public static final int STREAM_FLUSH_EVERY_ROWS = 500;
+}
@@ -2,6 +2,7 @@ package com.example.springsecurity.constants;
 
 public class SecurityConstant {
     public static final long EXPIRATION_TIME = 432000000; //5 days in ms
+    public static final long VERIFIED_TOKEN_CACHE_MAX_SIZE = 10000;
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String JWT_TOKEN_HEADER = "Jwt-Token";
     public static final String TOKEN_CANNOT_BE_VERIFIED = "Token cannot be verified";
@@ -10,6 +11,20 @@ public class SecurityConstant {
     public static final String AUTHORITIES = "Authorities";
     public static final String FORBIDDEN_MESSAGE = "You need to log in to access this page!";
     public static final String ACCESS_DENIED_MESSAGE = "You do not have permission to access this page!";
+    public static final int BCRYPT_DEFAULT_STRENGTH = 10;
+    public static final int BCRYPT_MIN_STRENGTH = 10;
+    public static final int BCRYPT_MAX_STRENGTH = 16;
+    public static final int HASHING_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    public static final int HASHING_QUEUE_CAPACITY = 64;
+    public static final long HASHING_TIMEOUT_SECONDS = 10;
+    public static final String HASHING_CAPACITY_EXCEEDED = "Too many login requests, please try again later";
+    public static final String LOGIN_ATTEMPT_STORE_PROPERTY = "security.login-attempts.store";
+    public static final int LOGIN_ATTEMPT_BUCKETS = 5;
+    public static final long LOGIN_ATTEMPT_BUCKET_MS = 180000; //3 minutes, 5 buckets make the 15 minute window
+    public static final String TOO_MANY_REQUESTS_MESSAGE = "Too many requests, please slow down!";
+    public static final int RATE_LIMIT_MAX_BODY_BYTES = 8192; //json bodies of endpoints with a username limit, larger ones get 413
+    public static final String REQUEST_BODY_TOO_LARGE = "Request body is too large";
+    public static final String USERNAME_FIELD = "username";
     public static final String OPTIONS_HTTP_METHOD = "OPTIONS";
    // public static final String[] PUBLIC_URLS = {"**" };
     public static final String[] PUBLIC_URLS = {"/user","/user/register","/user/login","/user/resetpassword/**" };
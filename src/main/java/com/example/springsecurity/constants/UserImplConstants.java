@@ -5,4 +5,22 @@ public class UserImplConstants {
     public static final String EMAIL_ALREADY_EXISTS = "Email already exists";
     public static final String NO_USER_FOUND_BY_USERNAME = "No user found by username ";
     public static final String NO_USER_FOUND_BY_EMAIL = "No user found by email ";
+    public static final long NO_USER_ID = -1;
+    public static final String USER_ID_UNIQUE_KEY = "uk_user_user_id";
+    public static final String USERNAME_UNIQUE_KEY = "uk_user_username";
+    public static final String EMAIL_UNIQUE_KEY = "uk_user_email";
+    public static final long USER_CACHE_MAX_SIZE = 10000;
+    public static final long USER_CACHE_TTL_MINUTES = 10;
+    public static final int LAST_LOGIN_BATCH_SIZE = 500;
+    public static final long LAST_LOGIN_FLUSH_INTERVAL_MS = 5000;
+    public static final long LAST_LOGIN_SHUTDOWN_TIMEOUT_SECONDS = 10;
+    public static final String USER_ID_GENERATOR = "user_id_generator";
+    public static final String USER_ID_SEQUENCE = "user_sequence";
+    public static final int USER_IMPORT_CHUNK_SIZE = 500;
+    public static final int USER_IMPORT_BATCH_SIZE = 50;
+    public static final int USER_IMPORT_HASHING_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2); //leaves cores for logins
+    public static final String USERNAME_REPEATED_IN_IMPORT = "Username appears earlier in this import";
+    public static final String EMAIL_REPEATED_IN_IMPORT = "Email appears earlier in this import";
+    public static final String DROP_USER_AUTHORITIES_PROPERTY = "app.migration.drop-user-authorities";
+    public static final int USER_ID_ALLOCATION_SIZE = 50; //ids handed out per sequence round trip, keep it at least hibernate.jdbc.batch_size
 }
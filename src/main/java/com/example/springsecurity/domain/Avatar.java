@@ -0,0 +1,20 @@
+package com.example.springsecurity.domain;
+
+//  a rendered placeholder image together with the hash of its bytes, used as its ETag
+public class Avatar {
+    private final byte[] content;
+    private final String contentHash;
+
+    public Avatar(byte[] content, String contentHash) {
+        this.content = content;
+        this.contentHash = contentHash;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.springsecurity.domain;
+
+//  result of the single existence check done before a user is created or renamed
+public class UserConflicts {
+    private final boolean usernameTaken;
+    private final boolean emailTaken;
+
+    public UserConflicts(Long usernameMatches, Long emailMatches) {
+        this.usernameTaken = usernameMatches != null && usernameMatches > 0;
+        this.emailTaken = emailMatches != null && emailMatches > 0;
+    }
+
+    public boolean isUsernameTaken() {
+        return usernameTaken;
+    }
+
+    public boolean isEmailTaken() {
+        return emailTaken;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.springsecurity.domain;
+
+import com.example.springsecurity.enumeration.ImportStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserImportResult {
+    private long line;
+    private String username;
+    private ImportStatus status;
+    private String message;
+}
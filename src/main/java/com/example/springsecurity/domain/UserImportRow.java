@@ -0,0 +1,20 @@
+package com.example.springsecurity.domain;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//  one line of a bulk import, the columns are the form fields of /user/add
+@Data
+@NoArgsConstructor
+public class UserImportRow {
+    private long line;
+    private String firstname;
+    private String lastname;
+    private String username;
+    private String email;
+    private String role;
+    private String isActive;
+    private String isNonLocked;
+    //  set by the reader when the line could not be parsed at all
+    private String parseError;
+}
@@ -1,14 +1,12 @@
 package com.example.springsecurity.domain;
 
+import com.example.springsecurity.enumeration.Role;
 import com.example.springsecurity.model.user.User;
+import com.example.springsecurity.utility.AuthorityInterner;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
-
-import static java.util.Arrays.stream;
 
 public class UserPrincipal implements UserDetails {
 
@@ -18,9 +16,13 @@ public class UserPrincipal implements UserDetails {
         this.user = user;
     }
 
+    public User getUser() {
+        return user;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return stream(user.getAuthorities()).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return AuthorityInterner.forRole(Role.fromName(user.getRole()));
     }
 
     @Override
@@ -0,0 +1,32 @@
+package com.example.springsecurity.domain;
+
+import com.example.springsecurity.model.user.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+
+//  read-only view of a user with only the displayed columns, never the password hash or the role authorities
+@Getter
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String userId;
+    private String firstname;
+    private String lastname;
+    private String username;
+    private String email;
+    private String profileImageUrl;
+    private Date lastLoginDate;
+    private Date lastLoginDateDisplay;
+    private Date joinDate;
+    private String role;
+    private boolean isActive;
+    private boolean isNotLocked;
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getUserId(), user.getFirstname(), user.getLastname(), user.getUsername(),
+                user.getEmail(), user.getProfileImageUrl(), user.getLastLoginDate(), user.getLastLoginDateDisplay(),
+                user.getJoinDate(), user.getRole(), user.isActive(), user.isNotLocked());
+    }
+}
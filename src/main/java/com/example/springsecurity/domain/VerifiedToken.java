@@ -0,0 +1,36 @@
+package com.example.springsecurity.domain;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Date;
+import java.util.List;
+
+//  a token whose signature has already been checked, so the claims can be read without verifying again
+public class VerifiedToken {
+
+    private final String subject;
+    private final Date expiresAt;
+    private final List<GrantedAuthority> authorities;
+
+    public VerifiedToken(String subject, Date expiresAt, List<GrantedAuthority> authorities) {
+        this.subject = subject;
+        this.expiresAt = expiresAt;
+        this.authorities = authorities;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    public boolean isNotExpired() {
+        return expiresAt != null && expiresAt.after(new Date());
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.springsecurity.enumeration;
+
+public enum ExecutionMode {
+    //  handlers run on the tomcat worker that accepted the request
+    BLOCKING,
+    //  handlers that return a Callable hand the worker back and run on a bounded pool
+    ASYNC,
+    //  tomcat workers and handlers are virtual threads, needs a JDK that has them
+    VIRTUAL
+}
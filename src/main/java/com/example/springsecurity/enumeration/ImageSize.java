@@ -0,0 +1,30 @@
+package com.example.springsecurity.enumeration;
+
+public enum ImageSize {
+    THUMBNAIL(64),
+    MEDIUM(256),
+    ORIGINAL(0);
+
+    private int maxDimension;
+
+    ImageSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    //  unknown or missing sizes fall back to the original upload
+    public static ImageSize fromParameter(String size) {
+        if (size == null) {
+            return ORIGINAL;
+        }
+        for (ImageSize imageSize : values()) {
+            if (imageSize.name().equalsIgnoreCase(size)) {
+                return imageSize;
+            }
+        }
+        return ORIGINAL;
+    }
+}
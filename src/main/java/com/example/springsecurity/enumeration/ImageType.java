@@ -0,0 +1,40 @@
+package com.example.springsecurity.enumeration;
+
+import java.nio.ByteBuffer;
+
+//  upload formats ImageIO can decode, recognised by their leading bytes rather than the client's content type
+public enum ImageType {
+    JPEG(new int[]{0xFF, 0xD8, 0xFF}),
+    PNG(new int[]{0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}),
+    GIF(new int[]{'G', 'I', 'F', '8'});
+
+    public static final int MAGIC_LENGTH = 8;
+
+    private int[] magic;
+
+    ImageType(int[] magic) {
+        this.magic = magic;
+    }
+
+    //  looks at the bytes between index 0 and the buffer's position, without moving it
+    public static ImageType detect(ByteBuffer header) {
+        for (ImageType type : values()) {
+            if (type.matches(header)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(ByteBuffer header) {
+        if (header.position() < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header.get(i) & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
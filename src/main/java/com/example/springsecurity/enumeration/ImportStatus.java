@@ -0,0 +1,9 @@
+package com.example.springsecurity.enumeration;
+
+public enum ImportStatus {
+    CREATED,
+    INVALID,
+    USERNAME_EXISTS,
+    EMAIL_EXISTS,
+    FAILED
+}
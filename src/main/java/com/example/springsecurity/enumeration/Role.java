@@ -18,4 +18,17 @@ public enum Role {
     public String[] getUserAuthorities() {
         return userAuthorities;
     }
+
+    //  null for a missing or unknown name, so a bad stored value grants nothing instead of failing the load
+    public static Role fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (Role role : values()) {
+            if (role.name().equals(name)) {
+                return role;
+            }
+        }
+        return null;
+    }
 }
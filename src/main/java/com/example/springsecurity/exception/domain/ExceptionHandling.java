@@ -13,12 +13,14 @@ import org.springframework.security.authentication.LockedException;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.nio.file.AccessDeniedException;
 import java.util.Arrays;
 import java.util.Locale;
 import java.util.Objects;
 
+import static com.example.springsecurity.constants.FileConstant.IMAGE_TOO_LARGE;
 import static org.springframework.http.HttpStatus.*;
 
 @RestControllerAdvice
@@ -74,6 +76,26 @@ public class ExceptionHandling {
         return createHttpResponse(BAD_REQUEST, exception.getMessage());
     }
 
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    private ResponseEntity<HttpResponse> hashingCapacityExceededException(HashingCapacityExceededException exception) {
+        return createHttpResponse(SERVICE_UNAVAILABLE, exception.getMessage());
+    }
+
+    @ExceptionHandler(ImageTooLargeException.class)
+    private ResponseEntity<HttpResponse> imageTooLargeException(ImageTooLargeException exception) {
+        return createHttpResponse(PAYLOAD_TOO_LARGE, exception.getMessage());
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    private ResponseEntity<HttpResponse> maxUploadSizeExceededException() {
+        return createHttpResponse(PAYLOAD_TOO_LARGE, IMAGE_TOO_LARGE);
+    }
+
+    @ExceptionHandler(UnsupportedImageTypeException.class)
+    private ResponseEntity<HttpResponse> unsupportedImageTypeException(UnsupportedImageTypeException exception) {
+        return createHttpResponse(UNSUPPORTED_MEDIA_TYPE, exception.getMessage());
+    }
+
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
     private ResponseEntity<HttpResponse> httpRequestMethodNotSupportedException(HttpRequestMethodNotSupportedException exception) {
         HttpMethod supportedMethod = HttpMethod.valueOf(Arrays.stream(Objects.requireNonNull(exception.getSupportedMethods())).iterator().next());
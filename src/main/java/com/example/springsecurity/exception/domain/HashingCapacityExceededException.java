@@ -0,0 +1,8 @@
+package com.example.springsecurity.exception.domain;
+
+//  unchecked because it is raised from inside PasswordEncoder, whose methods cannot declare checked exceptions
+public class HashingCapacityExceededException extends RuntimeException {
+    public HashingCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.springsecurity.exception.domain;
+
+//  unchecked so a rejected upload rolls back the user update it is part of
+public class ImageTooLargeException extends RuntimeException {
+    public ImageTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.springsecurity.filter;
 
+import com.example.springsecurity.domain.VerifiedToken;
 import com.example.springsecurity.utility.JWTTokenProvider;
+import com.example.springsecurity.utility.Telemetry;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -14,7 +16,6 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
 
 import static com.example.springsecurity.constants.SecurityConstant.*;
 import static org.springframework.http.HttpStatus.OK;
@@ -23,9 +24,16 @@ import static org.springframework.http.HttpStatus.OK;
 public class JwtAuthorizationFilter extends OncePerRequestFilter {
 
     private JWTTokenProvider tokenProvider;
+    private Telemetry telemetry;
 
     public JwtAuthorizationFilter(JWTTokenProvider tokenProvider) {
+        this(tokenProvider, Telemetry.noop());
+    }
+
+    @Autowired
+    public JwtAuthorizationFilter(JWTTokenProvider tokenProvider, Telemetry telemetry) {
         this.tokenProvider = tokenProvider;
+        this.telemetry = telemetry;
     }
 
     @Override
@@ -39,16 +47,18 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
                return;
             }
 
-            String token = authHeader.substring(TOKEN_PREFIX.length());
-            String username = tokenProvider.getSubject(token);
-            if(tokenProvider.isValidToken(username,token) && SecurityContextHolder.getContext().getAuthentication()==null){
-               List<GrantedAuthority> authorities = tokenProvider.getAuthorities(token);
-                Authentication authentication = tokenProvider.getAuthentication(username,authorities,request);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-            }else {
-                SecurityContextHolder.clearContext();
+            //  only the filter's own work is timed, the rest of the chain runs outside the span
+            telemetry.run("jwt.filter", Tags.empty(), () -> {
+                String token = authHeader.substring(TOKEN_PREFIX.length());
+                VerifiedToken verifiedToken = tokenProvider.verifyToken(token);
+                if(tokenProvider.isValidToken(verifiedToken) && SecurityContextHolder.getContext().getAuthentication()==null){
+                    Authentication authentication = tokenProvider.getAuthentication(verifiedToken.getSubject(),verifiedToken.getAuthorities(),request);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }else {
+                    SecurityContextHolder.clearContext();
 
-            }
+                }
+            });
         }
         filterChain.doFilter(request,response);
     }
@@ -0,0 +1,156 @@
+package com.example.springsecurity.filter;
+
+import com.example.springsecurity.configuration.RateLimitProperties;
+import com.example.springsecurity.configuration.RateLimitProperties.Rule;
+import com.example.springsecurity.domain.HttpResponse;
+import com.example.springsecurity.utility.TokenBucket;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static com.example.springsecurity.constants.SecurityConstant.*;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.springframework.http.HttpStatus.PAYLOAD_TOO_LARGE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+//  token buckets per client address and per target username, checked before any hashing or query runs
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final String BY_ADDRESS = "address";
+    private static final String BY_USERNAME = "username";
+
+    private RateLimitProperties properties;
+    private ObjectMapper objectMapper;
+    private MeterRegistry meterRegistry;
+    private AntPathMatcher pathMatcher = new AntPathMatcher();
+    private Cache<String, TokenBucket> buckets;
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        //  bounded so a flood of spoofed addresses cannot grow the heap
+        this.buckets = CacheBuilder.newBuilder().maximumSize(properties.getMaxTrackedKeys())
+                .expireAfterAccess(properties.getIdleExpiryMinutes(), MINUTES).build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Rule rule = properties.isEnabled() ? findRule(request) : null;
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long now = System.nanoTime();
+        TokenBucket addressBucket = bucket(rule, BY_ADDRESS, request.getRemoteAddr(), rule.getRequestsPerMinute(), rule.getBurst(), now);
+        if (addressBucket != null && !addressBucket.tryConsume(now)) {
+            reject(response, rule, BY_ADDRESS, addressBucket.secondsUntilNextToken(now));
+            return;
+        }
+        if (rule.getUsernameRequestsPerMinute() > 0) {
+            if (isJson(request)) {
+                CachedBodyHttpServletRequest cachedRequest = new CachedBodyHttpServletRequest(request, RATE_LIMIT_MAX_BODY_BYTES);
+                //  the limited endpoints take a few fields, a body that can not be held whole is not a real request
+                if (!cachedRequest.isComplete()) {
+                    writeError(response, PAYLOAD_TOO_LARGE, REQUEST_BODY_TOO_LARGE);
+                    return;
+                }
+                request = cachedRequest;
+            }
+            String username = extractUsername(rule, request);
+            TokenBucket usernameBucket = bucket(rule, BY_USERNAME, username, rule.getUsernameRequestsPerMinute(), rule.getUsernameBurst(), now);
+            if (usernameBucket != null && !usernameBucket.tryConsume(now)) {
+                reject(response, rule, BY_USERNAME, usernameBucket.secondsUntilNextToken(now));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Rule findRule(HttpServletRequest request) {
+        String path = request.getServletPath();
+        for (Rule rule : properties.getRules()) {
+            if ((rule.getMethod() == null || rule.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(rule.getPath(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private TokenBucket bucket(Rule rule, String type, String key, long requestsPerMinute, long burst, long now) {
+        if (key == null || requestsPerMinute <= 0) {
+            return null;
+        }
+        try {
+            return buckets.get(rule.getName() + ':' + type + ':' + key, () -> new TokenBucket(requestsPerMinute, burst, now));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //  a path variable such as the email of a password reset wins, then a form field, then the json body
+    private String extractUsername(Rule rule, HttpServletRequest request) throws IOException {
+        Map<String, String> variables = pathMatcher.extractUriTemplateVariables(rule.getPath(), request.getServletPath());
+        if (!variables.isEmpty()) {
+            return variables.values().iterator().next().toLowerCase();
+        }
+        if (request instanceof CachedBodyHttpServletRequest) {
+            byte[] body = ((CachedBodyHttpServletRequest) request).getBody();
+            if (body.length == 0) {
+                return null;
+            }
+            try {
+                JsonNode username = objectMapper.readTree(body).get(USERNAME_FIELD);
+                return username == null ? null : username.asText().toLowerCase();
+            } catch (IOException e) {
+                //  malformed json is rejected by the controller, there is no username to limit here
+                return null;
+            }
+        }
+        String username = request.getParameter(USERNAME_FIELD);
+        return username == null ? null : username.toLowerCase();
+    }
+
+    private boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    private void reject(HttpServletResponse response, Rule rule, String type, long retryAfterSeconds) throws IOException {
+        Counter.builder("rate.limit.rejected").tag("rule", rule.getName()).tag("key", type)
+                .register(meterRegistry).increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        writeError(response, TOO_MANY_REQUESTS, TOO_MANY_REQUESTS_MESSAGE);
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        HttpResponse httpResponse = new HttpResponse(status.value(), status, status.getReasonPhrase().toUpperCase(), message);
+        response.setContentType(APPLICATION_JSON_VALUE);
+        response.setStatus(status.value());
+        OutputStream outputStream = response.getOutputStream();
+        objectMapper.writeValue(outputStream, httpResponse);
+        outputStream.flush();
+    }
+}
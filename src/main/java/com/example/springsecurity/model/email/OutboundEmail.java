@@ -0,0 +1,45 @@
+package com.example.springsecurity.model.email;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.util.Date;
+
+//  an email waiting in the outbox, rows are deleted once the message has been accepted by the smtp server.
+//  rows that gave up stay as FAILED for diagnosis, without their body
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "outbound_email", indexes = @Index(name = "idx_outbound_email_status_next_attempt", columnList = "status, nextAttemptAt"))
+public class OutboundEmail implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String recipient;
+    private String subject;
+    @Column(length = 4000)
+    private String body;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+    private int attempts;
+    private Date nextAttemptAt;
+    private Date createdAt;
+    private String lastError;
+
+    public enum Status {
+        PENDING,
+        FAILED
+    }
+}
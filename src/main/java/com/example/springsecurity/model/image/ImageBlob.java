@@ -0,0 +1,25 @@
+package com.example.springsecurity.model.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.util.Date;
+
+//  one row per stored image file, referenceCount is the number of users pointing at it
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "image_blob", indexes = @Index(name = "idx_image_blob_reference_count", columnList = "referenceCount, lastStoredAt"))
+public class ImageBlob implements Serializable {
+    @Id
+    private String hash;
+    private long referenceCount;
+    private Date lastStoredAt;
+}
@@ -0,0 +1,28 @@
+package com.example.springsecurity.model.loginattempt;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+//  one row per username and time bucket, shared by every node through the database
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "login_attempt_bucket", indexes = {
+        @Index(name = "idx_login_attempt_username_bucket", columnList = "username, bucketId"),
+        @Index(name = "idx_login_attempt_bucket", columnList = "bucketId")
+})
+public class LoginAttemptBucket implements Serializable {
+    @Id
+    private String bucketKey;
+    private String username;
+    private long bucketId;
+    private long attempts;
+}
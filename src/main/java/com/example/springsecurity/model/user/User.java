@@ -1,5 +1,6 @@
 package com.example.springsecurity.model.user;
 
+import com.example.springsecurity.enumeration.Role;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -8,16 +9,29 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import java.io.Serializable;
 import java.util.Date;
 
+import static com.example.springsecurity.constants.UserImplConstants.*;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(name = "user", uniqueConstraints = {
+        @UniqueConstraint(name = USER_ID_UNIQUE_KEY, columnNames = "userId"),
+        @UniqueConstraint(name = USERNAME_UNIQUE_KEY, columnNames = "username"),
+        @UniqueConstraint(name = EMAIL_UNIQUE_KEY, columnNames = "email")
+})
 public class User implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //  ids come from a pooled sequence (a table on MySQL) instead of IDENTITY, so hibernate knows them before the
+    //  insert and can batch the inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = USER_ID_GENERATOR)
+    @SequenceGenerator(name = USER_ID_GENERATOR, sequenceName = USER_ID_SEQUENCE, allocationSize = USER_ID_ALLOCATION_SIZE)
     private Long id;
     private String userId;
     private String firstname;
@@ -29,8 +43,15 @@ public class User implements Serializable {
     private Date lastLoginDate;
     private Date lastLoginDateDisplay;
     private Date joinDate;
+    //  the only stored form of the authorities, a Role name; the authorities follow from it through the Role enum
     private String role;
-    private String[] authorities;
     private boolean isActive;
     private boolean isNotLocked;
+    private String profileImageHash;
+
+    //  derived, not a column. kept on the json so clients still see the authorities of the user
+    public String[] getAuthorities() {
+        Role resolved = Role.fromName(role);
+        return resolved == null ? new String[0] : resolved.getUserAuthorities().clone();
+    }
 }
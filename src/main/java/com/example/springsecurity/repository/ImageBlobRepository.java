@@ -0,0 +1,36 @@
+package com.example.springsecurity.repository;
+
+import com.example.springsecurity.model.image.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    //  commits on its own so the row exists for garbage collection even if the upload's transaction rolls back
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "insert into image_blob (hash, reference_count, last_stored_at) values (:hash, 0, :now) "
+            + "on duplicate key update last_stored_at = :now", nativeQuery = true)
+    void registerStored(@Param("hash") String hash, @Param("now") Date now);
+
+    @Transactional
+    @Modifying
+    @Query("update ImageBlob b set b.referenceCount = b.referenceCount + :delta where b.hash = :hash")
+    int addReferences(@Param("hash") String hash, @Param("delta") long delta);
+
+    @Query("select b.hash from ImageBlob b where b.referenceCount <= 0 and b.lastStoredAt < :cutoff")
+    List<String> findUnreferencedBefore(@Param("cutoff") Date cutoff);
+
+    //  the conditions are checked again so a blob referenced or stored meanwhile survives
+    @Transactional
+    @Modifying
+    @Query("delete from ImageBlob b where b.hash = :hash and b.referenceCount <= 0 and b.lastStoredAt < :cutoff")
+    int deleteIfUnreferenced(@Param("hash") String hash, @Param("cutoff") Date cutoff);
+}
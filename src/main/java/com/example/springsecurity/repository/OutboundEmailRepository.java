@@ -0,0 +1,30 @@
+package com.example.springsecurity.repository;
+
+import com.example.springsecurity.model.email.OutboundEmail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+    List<OutboundEmail> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(OutboundEmail.Status status, Date now, Pageable pageable);
+
+    //  matches only while the row is still as it was read, so of several dispatchers exactly one gets 1 back
+    @Transactional
+    @Modifying
+    @Query("update OutboundEmail e set e.nextAttemptAt = :leaseUntil "
+            + "where e.id = :id and e.status = :status and e.nextAttemptAt = :seen")
+    int claim(@Param("id") Long id, @Param("status") OutboundEmail.Status status, @Param("seen") Date seen,
+              @Param("leaseUntil") Date leaseUntil);
+
+    //  rows that gave up before the dispatcher cleared failed bodies still hold a plaintext password
+    @Transactional
+    @Modifying
+    @Query("update OutboundEmail e set e.body = null where e.status = :status and e.body is not null")
+    int clearBodies(@Param("status") OutboundEmail.Status status);
+}
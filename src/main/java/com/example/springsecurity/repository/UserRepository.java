@@ -1,9 +1,61 @@
 package com.example.springsecurity.repository;
 
+import com.example.springsecurity.domain.UserConflicts;
+import com.example.springsecurity.domain.UserSummary;
 import com.example.springsecurity.model.user.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 public interface UserRepository  extends JpaRepository<User, Long> {
+    String USER_SUMMARY_COLUMNS = "new com.example.springsecurity.domain.UserSummary(u.id, u.userId, u.firstname, u.lastname, "
+            + "u.username, u.email, u.profileImageUrl, u.lastLoginDate, u.lastLoginDateDisplay, u.joinDate, u.role, u.isActive, u.isNotLocked)";
+
     User findUserByUsername(String username);
     User findUserByEmail(String email);
+
+    //  one index lookup per unique key instead of loading whole rows, the user being edited is excluded by id
+    @Query("select new com.example.springsecurity.domain.UserConflicts("
+            + "sum(case when u.username = :username then 1 else 0 end), sum(case when u.email = :email then 1 else 0 end)) "
+            + "from User u where (u.username = :username or u.email = :email) and u.id <> :excludedId")
+    UserConflicts findConflicts(@Param("username") String username, @Param("email") String email, @Param("excludedId") Long excludedId);
+
+    //  set-based checks for bulk imports, one query per chunk instead of one per row
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    //  the summary queries select only the displayed columns into UserSummary, hibernate keeps no managed copy of them
+
+    //  keyset pagination: the next page starts after the last id of the previous one, no offset scan
+    @Query("select " + USER_SUMMARY_COLUMNS + " from User u where u.id > :id order by u.id")
+    List<UserSummary> findSummariesAfter(@Param("id") Long id, Pageable pageable);
+
+    //  a fetch size of Integer.MIN_VALUE makes the MySQL driver stream rows instead of buffering the result
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("select " + USER_SUMMARY_COLUMNS + " from User u order by u.id")
+    Stream<UserSummary> streamSummaries();
+
+    @Modifying
+    @Query("update User u set u.isNotLocked = false where u.id = :id")
+    int lockUser(@Param("id") Long id);
+
+    //  only replaces the hash it was computed from, so a concurrent password reset wins
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newPassword where u.id = :id and u.password = :currentPassword")
+    int updatePassword(@Param("id") Long id, @Param("currentPassword") String currentPassword, @Param("newPassword") String newPassword);
 }
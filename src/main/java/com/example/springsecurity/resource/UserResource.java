@@ -1,38 +1,62 @@
 package com.example.springsecurity.resource;
 
+import com.example.springsecurity.domain.Avatar;
 import com.example.springsecurity.domain.HttpResponse;
 import com.example.springsecurity.domain.UserPrincipal;
+import com.example.springsecurity.domain.UserSummary;
+import com.example.springsecurity.enumeration.ImageSize;
 import com.example.springsecurity.exception.domain.EmailExistException;
-import com.example.springsecurity.exception.domain.EmailNotFoundException;
 import com.example.springsecurity.exception.domain.ExceptionHandling;
+import com.example.springsecurity.exception.domain.ImageTooLargeException;
 import com.example.springsecurity.exception.domain.UsernameExistException;
 import com.example.springsecurity.model.user.User;
+import com.example.springsecurity.service.facade.AvatarService;
+import com.example.springsecurity.service.facade.ImageStore;
+import com.example.springsecurity.service.facade.ImageVariantService;
+import com.example.springsecurity.service.facade.UserImportService;
 import com.example.springsecurity.service.facade.UserService;
+import com.example.springsecurity.utility.FileStreamer;
 import com.example.springsecurity.utility.JWTTokenProvider;
+import com.example.springsecurity.utility.Telemetry;
+import com.example.springsecurity.utility.UserExportWriter;
+import com.example.springsecurity.utility.UserImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.ByteArrayOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.file.Files;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import static com.example.springsecurity.constants.FileConstant.*;
+import static com.example.springsecurity.constants.PaginationConstant.*;
 import static com.example.springsecurity.constants.SecurityConstant.JWT_TOKEN_HEADER;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.IMAGE_GIF_VALUE;
 import static org.springframework.http.MediaType.IMAGE_JPEG_VALUE;
+import static org.springframework.http.MediaType.IMAGE_PNG_VALUE;
 
 @Controller
 @RequestMapping(value = "/user")
@@ -42,27 +66,45 @@ public class UserResource extends ExceptionHandling {
     //Auth helpers
     private AuthenticationManager authenticationManager;
     private JWTTokenProvider jwtTokenProvider;
+    private ObjectMapper objectMapper;
+    private FileStreamer fileStreamer;
+    private AvatarService avatarService;
+    private ImageVariantService imageVariantService;
+    private ImageStore imageStore;
+    private Telemetry telemetry;
+    private UserImportService userImportService;
 
     @Autowired
-    public UserResource(UserService userService, AuthenticationManager authenticationManager, JWTTokenProvider jwtTokenProvider) {
+    public UserResource(UserService userService, AuthenticationManager authenticationManager, JWTTokenProvider jwtTokenProvider,
+                        ObjectMapper objectMapper, FileStreamer fileStreamer, AvatarService avatarService,
+                        ImageVariantService imageVariantService, ImageStore imageStore, Telemetry telemetry,
+                        UserImportService userImportService) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.objectMapper = objectMapper;
+        this.fileStreamer = fileStreamer;
+        this.avatarService = avatarService;
+        this.imageVariantService = imageVariantService;
+        this.imageStore = imageStore;
+        this.telemetry = telemetry;
+        this.userImportService = userImportService;
     }
 
+    //handlers that wait on jdbc, smtp enqueueing or rendering return a Callable, so the execution mode decides
+    //whether they hold the tomcat worker (blocking), move to the bounded request pool (async) or to a virtual thread
     @PostMapping("/register")
-    public ResponseEntity<User> register(@RequestBody User user) throws EmailExistException, UsernameExistException {
-        User newUser = userService.register(user);
-        return new ResponseEntity<>(newUser, OK);
+    public Callable<ResponseEntity<User>> register(@RequestBody User user) {
+        return () -> new ResponseEntity<>(userService.register(user), OK);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<User> login(@RequestBody User user) {
-        authenticate(user.getUsername(), user.getPassword());
-        User loginUser = userService.findUserByUsername(user.getUsername());
-        UserPrincipal userPrincipal = new UserPrincipal(loginUser);
+    public ResponseEntity<UserSummary> login(@RequestBody User user) {
+        UserPrincipal userPrincipal = authenticate(user.getUsername(), user.getPassword());
+        User loginUser = userPrincipal.getUser();
+        userService.upgradePasswordEncodingIfNeeded(loginUser, user.getPassword());
         HttpHeaders jwtHeader = getJwtHeader(userPrincipal);
-        return new ResponseEntity<>(loginUser, jwtHeader, OK);
+        return new ResponseEntity<>(UserSummary.from(loginUser), jwtHeader, OK);
     }
 
     @PostMapping(path = "/add", consumes = {"multipart/form-data"})
@@ -100,6 +142,16 @@ public class UserResource extends ExceptionHandling {
         return new ResponseEntity<>(updateUser, OK);
     }
 
+    //raw image body instead of multipart, the request stream is copied into the image store without being parsed or spooled first
+    @PutMapping(path = "/profileImage/{username}", consumes = {IMAGE_JPEG_VALUE, IMAGE_PNG_VALUE, IMAGE_GIF_VALUE})
+    public ResponseEntity<User> uploadProfileImage(@PathVariable String username, HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > MAX_IMAGE_UPLOAD_BYTES) {
+            throw new ImageTooLargeException(IMAGE_TOO_LARGE);
+        }
+        User updateUser = userService.updateProfileImage(username, request.getInputStream());
+        return new ResponseEntity<>(updateUser, OK);
+    }
+
     @DeleteMapping("/delete/{id}")
    // @PreAuthorize("hasAnyAuthority('user:delete')")
     public ResponseEntity<HttpResponse> deleteUser(@PathVariable long id) {
@@ -108,46 +160,145 @@ public class UserResource extends ExceptionHandling {
     }
 
     @GetMapping("/resetPassword/{email}")
-    public ResponseEntity<HttpResponse> resetPassword(@PathVariable String email) throws EmailNotFoundException {
-        userService.resetPassword(email);
-        return response(OK, "Email with new password was sent to: " + email);
+    public Callable<ResponseEntity<HttpResponse>> resetPassword(@PathVariable String email) {
+        return () -> {
+            userService.resetPassword(email);
+            return response(OK, "Email with new password was sent to: " + email);
+        };
     }
 
     @GetMapping(path = "/image/{username}/{fileName}", produces = IMAGE_JPEG_VALUE)
-    public byte[] getProfileImage(@PathVariable String username, @PathVariable String fileName) throws IOException {
-        return Files.readAllBytes(Paths.get(USER_FOLDER + username + FORWARD_SLASH + fileName));
+    public void getProfileImage(@PathVariable String username, @PathVariable String fileName,
+                                @RequestParam(value = "size", required = false) String size,
+                                HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path userFolder = Paths.get(USER_FOLDER).toAbsolutePath().normalize();
+        Path image = userFolder.resolve(username).resolve(fileName).normalize();
+        //path variables must not climb out of the user folder
+        if (!image.startsWith(userFolder)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        image = imageVariantService.resolveVariant(image, ImageSize.fromParameter(size));
+        fileStreamer.serve(image, IMAGE_JPEG_VALUE, PROFILE_IMAGE_CACHE_CONTROL, request, response);
+    }
+
+    //blob names are content hashes, a new upload gets a new url so the bytes behind one never change
+    @GetMapping(path = "/blob/{hash:[0-9a-f]{64}}.jpg", produces = IMAGE_JPEG_VALUE)
+    public void getImageBlob(@PathVariable String hash, @RequestParam(value = "size", required = false) String size,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageSize imageSize = ImageSize.fromParameter(size);
+        Path original = imageStore.resolve(hash);
+        Path image = imageVariantService.resolveVariant(original, imageSize);
+        //until the variant is generated the original stands in for it, and that answer must not be cached for a year
+        boolean fallback = imageSize != ImageSize.ORIGINAL && image.equals(original);
+        fileStreamer.serve(image, IMAGE_JPEG_VALUE, fallback ? PROFILE_IMAGE_CACHE_CONTROL : IMMUTABLE_CACHE_CONTROL,
+                request, response);
     }
 
     @GetMapping(path = "/image/profile/{username}", produces = IMAGE_JPEG_VALUE)
-    public byte[] getTempProfileImage(@PathVariable String username) throws IOException {
-        URL url = new URL(TEMP_PROFILE_IMAGE_BASE_URL + username);
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        try (InputStream inputStream = url.openStream()) {
-            int bytesRead;
-            byte[] chunk = new byte[1024];
-            while ((bytesRead = inputStream.read(chunk)) > 0) {
-                byteArrayOutputStream.write(chunk, 0, bytesRead);
-            }
-        }
-        return byteArrayOutputStream.toByteArray();
+    public Callable<ResponseEntity<byte[]>> getTempProfileImage(@PathVariable String username) {
+        return () -> {
+            Avatar avatar = telemetry.observe("image.placeholder", Tags.empty(), () -> avatarService.getPlaceholderAvatar(username));
+            return ResponseEntity.ok()
+                    .eTag(avatar.getContentHash())
+                    //avatars never change for a username
+                    .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL)
+                    .body(avatar.getContent());
+        };
     }
 
 
     @GetMapping("/find/{username}")
-    public ResponseEntity<User> deleteUser(@PathVariable String username) {
-        User foundUser = userService.findUserByUsername(username);
-        return new ResponseEntity<>(foundUser, OK);
+    public Callable<ResponseEntity<UserSummary>> deleteUser(@PathVariable String username) {
+        return () -> new ResponseEntity<>(userService.findUserSummaryByUsername(username), OK);
     }
 
     @GetMapping("/list")
-    public ResponseEntity<List<User>> getUsers() {
-        List<User> users = userService.getUsers();
-        return new ResponseEntity<>(users, OK);
+    public Callable<ResponseEntity<List<UserSummary>>> getUsers(@RequestParam(value = "after", defaultValue = "0") long after,
+                                                         @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        return () -> {
+            List<UserSummary> users = userService.getUsers(after, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+            HttpHeaders headers = new HttpHeaders();
+            if (!users.isEmpty()) {
+                headers.add(NEXT_CURSOR_HEADER, String.valueOf(users.get(users.size() - 1).getId()));
+            }
+            return new ResponseEntity<>(users, headers, OK);
+        };
+    }
+
+    @GetMapping(path = "/list/stream", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        StreamingResponseBody body = outputStream -> {
+            int[] rows = {0};
+            userService.streamUsers(user -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(user));
+                    outputStream.write('\n');
+                    if (++rows[0] % STREAM_FLUSH_EVERY_ROWS == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+        return new ResponseEntity<>(body, OK);
+    }
+
+    //rows are read, created and reported chunk by chunk, the first results arrive while the rest is still uploading
+    @PostMapping(path = "/import", consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE}, produces = APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyAuthority('user:create')")
+    public ResponseEntity<StreamingResponseBody> importUsers(HttpServletRequest request) throws IOException {
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE));
+        if (request.getCharacterEncoding() == null) {
+            request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        UserImportReader rows = new UserImportReader(request.getReader(), csv, objectMapper);
+        //the async thread that runs the body has no request bound, so the base url is resolved here
+        String placeholderImageBaseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().path(DEFAULT_USER_IMAGE_PATH).toUriString();
+        StreamingResponseBody body = outputStream -> {
+            int[] count = {0};
+            userImportService.importUsers(rows, placeholderImageBaseUrl, result -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(result));
+                    outputStream.write('\n');
+                    if (++count[0] % STREAM_FLUSH_EVERY_ROWS == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+        return new ResponseEntity<>(body, OK);
+    }
 
+    @GetMapping(path = "/export", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        //rows come from one streaming cursor over the table and are written as they are read
+        StreamingResponseBody body = outputStream -> {
+            UserExportWriter writer = new UserExportWriter(
+                    new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+            writer.writeHeader();
+            userService.streamUsers(user -> {
+                try {
+                    writer.write(user);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .body(body);
     }
 
-    private void authenticate(String username, String password) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+    private UserPrincipal authenticate(String username, String password) {
+        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+        return (UserPrincipal) authentication.getPrincipal();
     }
 
     private HttpHeaders getJwtHeader(UserPrincipal userPrincipal) {
@@ -0,0 +1,8 @@
+package com.example.springsecurity.service.facade;
+
+import com.example.springsecurity.domain.Avatar;
+
+public interface AvatarService {
+
+    Avatar getPlaceholderAvatar(String username);
+}
@@ -0,0 +1,19 @@
+package com.example.springsecurity.service.facade;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+//  content-addressed image files: the name of a file is the hash of its bytes, so a stored file never changes
+public interface ImageStore {
+
+    String store(InputStream content) throws IOException;
+
+    Path resolve(String hash);
+
+    void addReference(String hash);
+
+    void removeReference(String hash);
+
+    int collectGarbage();
+}
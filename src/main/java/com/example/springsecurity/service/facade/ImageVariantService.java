@@ -0,0 +1,12 @@
+package com.example.springsecurity.service.facade;
+
+import com.example.springsecurity.enumeration.ImageSize;
+
+import java.nio.file.Path;
+
+public interface ImageVariantService {
+
+    void generateVariantsAsync(Path original);
+
+    Path resolveVariant(Path original, ImageSize size);
+}
@@ -0,0 +1,10 @@
+package com.example.springsecurity.service.facade;
+
+import com.example.springsecurity.model.user.User;
+
+public interface LastLoginService {
+
+    void recordLogin(User user);
+
+    void flush();
+}
@@ -0,0 +1,11 @@
+package com.example.springsecurity.service.facade;
+
+//  backend for failed login counts over a sliding window, times are passed in so every node buckets the same way
+public interface LoginAttemptStore {
+
+    void recordFailure(String username, long nowMillis);
+
+    long countFailures(String username, long nowMillis);
+
+    void reset(String username);
+}
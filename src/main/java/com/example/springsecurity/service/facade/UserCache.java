@@ -0,0 +1,21 @@
+package com.example.springsecurity.service.facade;
+
+import com.example.springsecurity.model.user.User;
+
+import java.util.function.Function;
+
+//  read-through cache of users by username and email, the local implementation can be swapped for a shared one
+public interface UserCache {
+
+    User getByUsername(String username, Function<String, User> loader);
+
+    User getByEmail(String email, Function<String, User> loader);
+
+    void put(User user);
+
+    void evict(User user);
+
+    double hitRatio();
+
+    long evictionCount();
+}
@@ -0,0 +1,12 @@
+package com.example.springsecurity.service.facade;
+
+import com.example.springsecurity.domain.UserImportResult;
+import com.example.springsecurity.domain.UserImportRow;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public interface UserImportService {
+    //  creates the users in chunks and reports one result per row, in input order, as each chunk completes
+    void importUsers(Iterator<UserImportRow> rows, String placeholderImageBaseUrl, Consumer<UserImportResult> results);
+}
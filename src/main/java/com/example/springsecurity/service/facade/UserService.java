@@ -1,5 +1,6 @@
 package com.example.springsecurity.service.facade;
 
+import com.example.springsecurity.domain.UserSummary;
 import com.example.springsecurity.exception.domain.EmailExistException;
 import com.example.springsecurity.exception.domain.EmailNotFoundException;
 import com.example.springsecurity.exception.domain.UsernameExistException;
@@ -7,16 +8,23 @@ import com.example.springsecurity.model.user.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService extends UserDetailsService {
     User register(User user) throws EmailExistException, UsernameExistException;
-    List<User> getUsers();
+    List<UserSummary> getUsers(long afterId, int limit);
+    void streamUsers(Consumer<UserSummary> consumer);
+    UserSummary findUserSummaryByUsername(String username);
     User findUserByUsername(String username);
+    void upgradePasswordEncodingIfNeeded(User user, String rawPassword);
     User findUserByEmail(String email);
     User addNewUser(User user, MultipartFile profileImage) throws EmailExistException, UsernameExistException;
     User updateUser(String currentUsername,User newUser, MultipartFile profileImage) throws EmailExistException, UsernameExistException;
     void deleteUser(long id);
     void resetPassword(String email) throws EmailNotFoundException;
     User updateProfileImage(String username,MultipartFile profileImage) throws EmailExistException, UsernameExistException;
+    User updateProfileImage(String username, InputStream profileImage) throws IOException;
 }
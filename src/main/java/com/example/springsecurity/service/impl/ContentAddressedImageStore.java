@@ -0,0 +1,219 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.enumeration.ImageSize;
+import com.example.springsecurity.enumeration.ImageType;
+import com.example.springsecurity.exception.domain.ImageTooLargeException;
+import com.example.springsecurity.exception.domain.UnsupportedImageTypeException;
+import com.example.springsecurity.repository.ImageBlobRepository;
+import com.example.springsecurity.service.facade.ImageStore;
+import com.example.springsecurity.service.facade.ImageVariantService;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.example.springsecurity.constants.FileConstant.*;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+//  files live under BLOB_FOLDER/<first two hex chars>/<sha-256>.jpg. uploads are checked and hashed while they are
+//  streamed to a temp file and then renamed into place, identical uploads share one file, and files nobody references
+//  any more are deleted by a periodic collection once they are older than a grace period
+@Service
+public class ContentAddressedImageStore implements ImageStore {
+    private static final String COLLECTED_SUFFIX = ".collected";
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private ImageBlobRepository imageBlobRepository;
+    private ImageVariantService imageVariantService;
+    private Path blobFolder;
+    private ScheduledExecutorService collector;
+
+    @Autowired
+    public ContentAddressedImageStore(ImageBlobRepository imageBlobRepository, ImageVariantService imageVariantService) {
+        this(imageBlobRepository, imageVariantService, Paths.get(BLOB_FOLDER));
+    }
+
+    public ContentAddressedImageStore(ImageBlobRepository imageBlobRepository, ImageVariantService imageVariantService,
+                                      Path blobFolder) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.imageVariantService = imageVariantService;
+        this.blobFolder = blobFolder.toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    public void start() {
+        this.collector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-blob-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.collector.scheduleWithFixedDelay(this::collectGarbageQuietly, BLOB_GC_INTERVAL_MS, BLOB_GC_INTERVAL_MS, MILLISECONDS);
+    }
+
+    @Override
+    public String store(InputStream content) throws IOException {
+        Files.createDirectories(blobFolder);
+        Path temp = Files.createTempFile(blobFolder, "upload", ".tmp");
+        try {
+            String hash = copyVerified(content, temp);
+            //  registering first refreshes the grace period, so a collection cannot remove a file we are about to share
+            imageBlobRepository.registerStored(hash, new Date());
+            Path target = resolve(hash);
+            boolean isNew = !Files.exists(target);
+            Files.createDirectories(target.getParent());
+            //  always replaced, even when the file looks present: a collection running at the same time may be
+            //  about to remove that copy, the bytes written here are what stays behind the registered row
+            Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+            if (isNew) {
+                imageVariantService.generateVariantsAsync(target);
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Path resolve(String hash) {
+        return blobFolder.resolve(hash.substring(0, 2)).resolve(hash + DOT + JPG_EXTENSION);
+    }
+
+    @Override
+    public void addReference(String hash) {
+        imageBlobRepository.addReferences(hash, 1);
+    }
+
+    @Override
+    public void removeReference(String hash) {
+        imageBlobRepository.addReferences(hash, -1);
+    }
+
+    @Override
+    public int collectGarbage() {
+        Date cutoff = new Date(System.currentTimeMillis() - BLOB_GC_GRACE_MS);
+        int deleted = 0;
+        for (String hash : imageBlobRepository.findUnreferencedBefore(cutoff)) {
+            //  the file is moved aside before the row goes, so an upload of the same hash that registers in between
+            //  either keeps the row (and the file comes back) or moves its own copy into the free place
+            Path original = resolve(hash);
+            Path collected = original.resolveSibling(original.getFileName() + COLLECTED_SUFFIX);
+            moveQuietly(original, collected);
+            if (imageBlobRepository.deleteIfUnreferenced(hash, cutoff) == 1) {
+                deleteFiles(original, collected);
+                deleted++;
+            } else if (!moveQuietly(collected, original) && Files.exists(original)) {
+                deleteFiles(collected);
+            }
+        }
+        return deleted;
+    }
+
+    //  copies through one fixed buffer, so memory per upload stays constant however large the body is; the type
+    //  is checked from the first bytes and the size as it streams, before anything reaches the blob folder
+    private String copyVerified(InputStream content, Path temp) throws IOException {
+        Hasher hasher = Hashing.sha256().newHasher();
+        ByteBuffer buffer = ByteBuffer.allocate(UPLOAD_BUFFER_BYTES);
+        long written = 0;
+        boolean typeChecked = false;
+        boolean endOfStream = false;
+        try (ReadableByteChannel in = Channels.newChannel(content);
+             FileChannel out = FileChannel.open(temp, WRITE, TRUNCATE_EXISTING)) {
+            while (!endOfStream) {
+                endOfStream = in.read(buffer) == -1;
+                if (!typeChecked) {
+                    if (buffer.position() < ImageType.MAGIC_LENGTH && !endOfStream) {
+                        continue;
+                    }
+                    if (ImageType.detect(buffer) == null) {
+                        throw new UnsupportedImageTypeException(UNSUPPORTED_IMAGE_TYPE);
+                    }
+                    typeChecked = true;
+                }
+                buffer.flip();
+                written += buffer.remaining();
+                if (written > MAX_IMAGE_UPLOAD_BYTES) {
+                    throw new ImageTooLargeException(IMAGE_TOO_LARGE);
+                }
+                hasher.putBytes(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (collector != null) {
+            collector.shutdown();
+        }
+    }
+
+    //  the original itself is left alone, a new upload may already have moved its copy back into place
+    private void deleteFiles(Path original, Path collected) {
+        for (ImageSize size : ImageSize.values()) {
+            Path variant = imageVariantService.resolveVariant(original, size);
+            if (!variant.equals(original)) {
+                deleteFiles(variant);
+            }
+        }
+        deleteFiles(collected);
+    }
+
+    private void deleteFiles(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete image blob file {}: {}", file, e.getMessage());
+        }
+    }
+
+    //  false when the source is missing or the target was taken in the meantime
+    private boolean moveQuietly(Path source, Path target) {
+        try {
+            Files.move(source, target, ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException | FileAlreadyExistsException e) {
+            return false;
+        } catch (IOException e) {
+            LOGGER.warn("Could not move image blob file {}: {}", source, e.getMessage());
+            return false;
+        }
+    }
+
+    private void collectGarbageQuietly() {
+        try {
+            int deleted = collectGarbage();
+            if (deleted > 0) {
+                LOGGER.info("Deleted {} unreferenced image blobs", deleted);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Image blob collection failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.configuration.EmailProperties;
+import com.example.springsecurity.model.email.OutboundEmail;
+import com.example.springsecurity.repository.OutboundEmailRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.example.springsecurity.constants.EmailConstant.*;
+import static com.example.springsecurity.model.email.OutboundEmail.Status.FAILED;
+import static com.example.springsecurity.model.email.OutboundEmail.Status.PENDING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static javax.mail.Message.RecipientType.CC;
+import static javax.mail.Message.RecipientType.TO;
+
+//  drains the outbox in batches over one smtp connection that stays open between batches,
+//  a failed message is retried with exponential backoff until maxAttempts is reached.
+//  a row is claimed before it is sent by moving its next attempt past a lease, so with several nodes each message
+//  goes out once; if a node dies mid-send the row becomes due again when the lease runs out
+@Service
+public class EmailDispatcher {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private OutboundEmailRepository outboundEmailRepository;
+    private EmailProperties emailProperties;
+    private Session session;
+    private Transport transport;
+    private ScheduledExecutorService dispatcher;
+
+    @Autowired
+    public EmailDispatcher(OutboundEmailRepository outboundEmailRepository, EmailProperties emailProperties) {
+        this.outboundEmailRepository = outboundEmailRepository;
+        this.emailProperties = emailProperties;
+        this.session = Session.getInstance(createSessionProperties(emailProperties));
+    }
+
+    @PostConstruct
+    public void start() {
+        outboundEmailRepository.clearBodies(FAILED);
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher.scheduleWithFixedDelay(this::dispatchQuietly, emailProperties.getPollIntervalMs(),
+                emailProperties.getPollIntervalMs(), MILLISECONDS);
+    }
+
+    //  returns the number of messages sent, only ever called from the dispatcher thread or from tests
+    public synchronized int dispatchBatch() {
+        Date now = new Date();
+        List<OutboundEmail> batch = outboundEmailRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                PENDING, now, PageRequest.of(0, emailProperties.getBatchSize()));
+        int sent = 0;
+        Date leaseUntil = new Date(now.getTime() + emailProperties.getClaimLeaseMs());
+        for (OutboundEmail outboundEmail : batch) {
+            //  other nodes read the same due rows, only the one whose claim matched sends the message
+            if (outboundEmailRepository.claim(outboundEmail.getId(), PENDING, outboundEmail.getNextAttemptAt(), leaseUntil) != 1) {
+                continue;
+            }
+            try {
+                Message message = createEmail(outboundEmail);
+                connectedTransport().sendMessage(message, message.getAllRecipients());
+                outboundEmailRepository.delete(outboundEmail);
+                sent++;
+            } catch (MessagingException e) {
+                scheduleRetry(outboundEmail, e, now);
+            }
+        }
+        return sent;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+        }
+        closeTransport();
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatchBatch();
+        } catch (RuntimeException e) {
+            LOGGER.error("Email dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    private void scheduleRetry(OutboundEmail outboundEmail, MessagingException e, Date now) {
+        //  the connection may be the problem, the next message reconnects
+        closeTransport();
+        int attempts = outboundEmail.getAttempts() + 1;
+        long backoff = Math.min(emailProperties.getInitialBackoffMs() << Math.min(attempts - 1, 20), emailProperties.getMaxBackoffMs());
+        outboundEmail.setAttempts(attempts);
+        outboundEmail.setLastError(StringUtils.abbreviate(e.getMessage(), 255));
+        outboundEmail.setNextAttemptAt(new Date(now.getTime() + backoff));
+        if (attempts >= emailProperties.getMaxAttempts()) {
+            outboundEmail.setStatus(FAILED);
+            //  the body holds the generated password, a row that is kept for diagnosis must not keep it too
+            outboundEmail.setBody(null);
+            LOGGER.error("Giving up on email {} after {} attempts: {}", outboundEmail.getId(), attempts, e.getMessage());
+        } else {
+            LOGGER.warn("Email {} failed, retrying in {} ms: {}", outboundEmail.getId(), backoff, e.getMessage());
+        }
+        outboundEmailRepository.save(outboundEmail);
+    }
+
+    private Transport connectedTransport() throws MessagingException {
+        if (transport == null || !transport.isConnected()) {
+            closeTransport();
+            transport = session.getTransport(emailProperties.getProtocol());
+            transport.connect(emailProperties.getHost(), emailProperties.getPort(),
+                    emailProperties.getUsername(), emailProperties.getPassword());
+        }
+        return transport;
+    }
+
+    private void closeTransport() {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                LOGGER.debug("Could not close smtp transport: {}", e.getMessage());
+            }
+            transport = null;
+        }
+    }
+
+    private Message createEmail(OutboundEmail outboundEmail) throws MessagingException {
+        Message message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(FROM_EMAIL));
+        message.setRecipients(TO, InternetAddress.parse(outboundEmail.getRecipient(), false));
+        message.setRecipients(CC, InternetAddress.parse(CC_EMAIL, false));
+        message.setSubject(outboundEmail.getSubject());
+        message.setText(outboundEmail.getBody());
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    private static Properties createSessionProperties(EmailProperties emailProperties) {
+        String prefix = "mail." + emailProperties.getProtocol() + ".";
+        Properties properties = new Properties();
+        properties.put(SMTP_HOST, emailProperties.getHost());
+        properties.put(SMTP_AUTH, emailProperties.isAuth());
+        properties.put(SMTP_PORT, emailProperties.getPort());
+        properties.put(SMTP_STARTTLS_ENABLE, emailProperties.isStartTls());
+        properties.put(SMTP_STARTTLS_REQUIRED, emailProperties.isStartTls());
+        properties.put(prefix + "host", emailProperties.getHost());
+        properties.put(prefix + "port", emailProperties.getPort());
+        properties.put(prefix + "auth", emailProperties.isAuth());
+        return properties;
+    }
+}
@@ -1,54 +1,35 @@
 package com.example.springsecurity.service.impl;
 
-import com.sun.mail.smtp.SMTPTransport;
+import com.example.springsecurity.model.email.OutboundEmail;
+import com.example.springsecurity.repository.OutboundEmailRepository;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import javax.mail.Message;
-import javax.mail.MessagingException;
-import javax.mail.Session;
-import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMessage;
 import java.util.Date;
-import java.util.Properties;
 
-import static com.example.springsecurity.constants.EmailConstant.*;
-import static com.example.springsecurity.constants.EmailCredentials.*;
-import static javax.mail.Message.RecipientType.CC;
-import static javax.mail.Message.RecipientType.TO;
+import static com.example.springsecurity.constants.EmailConstant.EMAIL_SUBJECT;
+import static com.example.springsecurity.model.email.OutboundEmail.Status.PENDING;
 
+//  request threads only write the message to the outbox, EmailDispatcher sends it in the background.
+//  saving joins the caller's transaction, so an email is queued exactly when the user change commits
 @Service
 public class EmailService {
 
-    public void sendNewPasswordEmail(String firstName, String password, String email) {
-        try {
-            Message message = createEmail(firstName, password, email);
-            SMTPTransport smtpTransport = (SMTPTransport) getEmailSession().getTransport(SIMPLE_MAIL_TRANSFER_PROTOCOL);
-            smtpTransport.connect(GMAIL_SMTP_SERVER, USERNAME, PASSWORD);
-            smtpTransport.sendMessage(message, message.getAllRecipients());
-        } catch (MessagingException e) {
-            e.printStackTrace();
-        }
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    public EmailService(OutboundEmailRepository outboundEmailRepository) {
+        this.outboundEmailRepository = outboundEmailRepository;
     }
 
-    private Message createEmail(String firstName, String password, String email) throws MessagingException {
-        Message message = new MimeMessage(getEmailSession());
-        message.setFrom(new InternetAddress(FROM_EMAIL));
-        message.setRecipients(TO, InternetAddress.parse(email, false));
-        message.setRecipients(CC, InternetAddress.parse(CC_EMAIL, false));
-        message.setSubject(EMAIL_SUBJECT);
-        message.setText("Hello " + firstName + " \n\n Your new account password is: " + password + " \n\n The support team!");
-        message.setSentDate(new Date());
-        message.saveChanges();
-        return message;
+    public void sendNewPasswordEmail(String firstName, String password, String email) {
+        Date now = new Date();
+        OutboundEmail outboundEmail = new OutboundEmail(null, email, EMAIL_SUBJECT, createText(firstName, password),
+                PENDING, 0, now, now, null);
+        outboundEmailRepository.save(outboundEmail);
     }
 
-    private Session getEmailSession() {
-        Properties properties = System.getProperties();
-        properties.put(SMTP_HOST, GMAIL_SMTP_SERVER);
-        properties.put(SMTP_AUTH, true);
-        properties.put(SMTP_PORT, DEFAULT_PORT);
-        properties.put(SMTP_STARTTLS_ENABLE, true);
-        properties.put(SMTP_STARTTLS_REQUIRED, true);
-        return Session.getDefaultInstance(properties, null);
+    private String createText(String firstName, String password) {
+        return "Hello " + firstName + " \n\n Your new account password is: " + password + " \n\n The support team!";
     }
 }
@@ -0,0 +1,168 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.domain.Avatar;
+import com.example.springsecurity.service.facade.AvatarService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.example.springsecurity.constants.FileConstant.*;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+//  draws a symmetric 5x5 identicon from the hash of the username, so the same user always gets the same picture
+//  without calling an external service. results are kept in a memory cache backed by a bounded disk folder
+@Service
+public class IdenticonAvatarService implements AvatarService {
+    private static final int GRID = 5;
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private Cache<String, Avatar> avatars;
+    private Path avatarFolder;
+    private ScheduledExecutorService trimmer;
+
+    public IdenticonAvatarService() {
+        this(Paths.get(AVATAR_FOLDER));
+    }
+
+    public IdenticonAvatarService(Path avatarFolder) {
+        this.avatarFolder = avatarFolder;
+        this.avatars = CacheBuilder.newBuilder().maximumWeight(AVATAR_MEMORY_CACHE_BYTES)
+                .weigher((String key, Avatar avatar) -> avatar.getContent().length).build();
+    }
+
+    @PostConstruct
+    public void start() {
+        this.trimmer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "avatar-cache-trimmer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.trimmer.scheduleWithFixedDelay(this::trimDiskCacheQuietly, AVATAR_DISK_TRIM_INTERVAL_MS,
+                AVATAR_DISK_TRIM_INTERVAL_MS, MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (trimmer != null) {
+            trimmer.shutdown();
+        }
+    }
+
+    @Override
+    public Avatar getPlaceholderAvatar(String username) {
+        String key = Hashing.sha256().hashString(username.toLowerCase(), StandardCharsets.UTF_8).toString();
+        try {
+            return avatars.get(key, () -> loadOrRender(key));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Avatar loadOrRender(String key) throws IOException {
+        Path file = avatarFolder.resolve(key + DOT + JPG_EXTENSION);
+        if (Files.isRegularFile(file)) {
+            return toAvatar(Files.readAllBytes(file));
+        }
+        Avatar avatar = toAvatar(render(key));
+        store(file, avatar.getContent());
+        return avatar;
+    }
+
+    private Avatar toAvatar(byte[] content) {
+        return new Avatar(content, Hashing.sha256().hashBytes(content).toString());
+    }
+
+    private byte[] render(String key) {
+        byte[] hash = Hashing.sha256().hashString(key, StandardCharsets.UTF_8).asBytes();
+        int cell = AVATAR_SIZE / (GRID + 1);
+        int margin = (AVATAR_SIZE - cell * GRID) / 2;
+        BufferedImage image = new BufferedImage(AVATAR_SIZE, AVATAR_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(new Color(240, 240, 240));
+            graphics.fillRect(0, 0, AVATAR_SIZE, AVATAR_SIZE);
+            graphics.setColor(Color.getHSBColor((hash[0] & 0xff) / 255f, 0.5f + (hash[1] & 0x7f) / 512f, 0.75f));
+            //  only the left half and the middle column come from the hash, the right half mirrors them
+            for (int row = 0; row < GRID; row++) {
+                for (int column = 0; column < (GRID + 1) / 2; column++) {
+                    if ((hash[2 + row * 3 + column] & 1) == 1) {
+                        graphics.fillRect(margin + column * cell, margin + row * cell, cell, cell);
+                        graphics.fillRect(margin + (GRID - 1 - column) * cell, margin + row * cell, cell, cell);
+                    }
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            ImageIO.write(image, JPG_EXTENSION, outputStream);
+            return outputStream.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //  the disk copy is only an optimisation, failing to write it never fails the request
+    private void store(Path file, byte[] content) {
+        try {
+            Files.createDirectories(avatarFolder);
+            Path temp = Files.createTempFile(avatarFolder, "avatar", ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not store avatar {}: {}", file, e.getMessage());
+        }
+    }
+
+    //  listing and sorting up to AVATAR_DISK_CACHE_FILES entries is too slow for a cache miss, so it runs in the background
+    private void trimDiskCacheQuietly() {
+        try {
+            trimDiskCache();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not trim the avatar folder: {}", e.getMessage());
+        }
+    }
+
+    private void trimDiskCache() throws IOException {
+        if (!Files.isDirectory(avatarFolder)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(avatarFolder)) {
+            files = stream.filter(path -> path.toString().endsWith(DOT + JPG_EXTENSION)).collect(Collectors.toList());
+        }
+        if (files.size() <= AVATAR_DISK_CACHE_FILES) {
+            return;
+        }
+        files.sort(Comparator.comparingLong(path -> path.toFile().lastModified()));
+        for (Path oldest : files.subList(0, files.size() - AVATAR_DISK_CACHE_FILES)) {
+            Files.deleteIfExists(oldest);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.enumeration.ImageSize;
+import com.example.springsecurity.service.facade.ImageVariantService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.springsecurity.constants.FileConstant.*;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+//  decodes an uploaded image once on a background pool and writes a jpeg per fixed size next to it.
+//  until the variants exist, or if the upload cannot be decoded, the original is served instead
+@Service
+public class ImageVariantServiceImpl implements ImageVariantService {
+    private static final String VARIANT_SEPARATOR = "-";
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private ThreadPoolExecutor imageExecutor;
+
+    public ImageVariantServiceImpl() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.imageExecutor = new ThreadPoolExecutor(IMAGE_PROCESSING_THREADS, IMAGE_PROCESSING_THREADS, 0, MILLISECONDS,
+                new ArrayBlockingQueue<>(IMAGE_PROCESSING_QUEUE_CAPACITY), runnable -> {
+            Thread thread = new Thread(runnable, "image-variants-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void generateVariantsAsync(Path original) {
+        try {
+            imageExecutor.execute(() -> generateVariants(original));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Image queue full, serving the original for {}", original.getFileName());
+        }
+    }
+
+    @Override
+    public Path resolveVariant(Path original, ImageSize size) {
+        if (size == ImageSize.ORIGINAL) {
+            return original;
+        }
+        Path variant = variantPath(original, size);
+        return Files.isRegularFile(variant) ? variant : original;
+    }
+
+    public void generateVariants(Path original) {
+        try {
+            BufferedImage image = ImageIO.read(original.toFile());
+            if (image == null) {
+                LOGGER.warn("Unsupported image format for {}", original.getFileName());
+                return;
+            }
+            for (ImageSize size : ImageSize.values()) {
+                if (size != ImageSize.ORIGINAL) {
+                    write(resize(image, size.getMaxDimension()), variantPath(original, size));
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not create image variants for {}: {}", original.getFileName(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        imageExecutor.shutdown();
+    }
+
+    //  fits the image in a maxDimension square keeping its aspect ratio, never upscales
+    private BufferedImage resize(BufferedImage image, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "variant", ".tmp");
+        try {
+            ImageIO.write(image, JPG_EXTENSION, temp.toFile());
+            Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path variantPath(Path original, ImageSize size) {
+        String fileName = original.getFileName().toString();
+        int dot = fileName.lastIndexOf(DOT);
+        String baseName = dot < 0 ? fileName : fileName.substring(0, dot);
+        return original.resolveSibling(baseName + VARIANT_SEPARATOR + size.name().toLowerCase() + DOT + JPG_EXTENSION);
+    }
+}
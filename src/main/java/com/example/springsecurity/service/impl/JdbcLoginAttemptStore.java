@@ -0,0 +1,75 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.service.facade.LoginAttemptStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.example.springsecurity.constants.SecurityConstant.*;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+//  shared store for several nodes behind a load balancer, every increment is a single upsert on the database
+@Service
+@ConditionalOnProperty(name = LOGIN_ATTEMPT_STORE_PROPERTY, havingValue = "jdbc")
+public class JdbcLoginAttemptStore implements LoginAttemptStore {
+    private static final String INCREMENT = "insert into login_attempt_bucket (bucket_key, username, bucket_id, attempts) "
+            + "values (?, ?, ?, 1) on duplicate key update attempts = attempts + 1";
+    private static final String COUNT = "select coalesce(sum(attempts), 0) from login_attempt_bucket where username = ? and bucket_id > ?";
+    private static final String HAS_FAILURES = "select 1 from login_attempt_bucket where username = ? limit 1";
+    private static final String RESET = "delete from login_attempt_bucket where username = ?";
+    private static final String SWEEP = "delete from login_attempt_bucket where bucket_id <= ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public JdbcLoginAttemptStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-attempt-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(() -> sweep(System.currentTimeMillis()),
+                LOGIN_ATTEMPT_BUCKET_MS, LOGIN_ATTEMPT_BUCKET_MS, MILLISECONDS);
+    }
+
+    @Override
+    public void recordFailure(String username, long nowMillis) {
+        long bucket = bucketOf(nowMillis);
+        jdbcTemplate.update(INCREMENT, username + ":" + bucket, username, bucket);
+    }
+
+    @Override
+    public long countFailures(String username, long nowMillis) {
+        Long count = jdbcTemplate.queryForObject(COUNT, Long.class, username, bucketOf(nowMillis) - LOGIN_ATTEMPT_BUCKETS);
+        return count == null ? 0 : count;
+    }
+
+    //  every successful login resets, and almost none of them have failures to clear. the indexed read keeps
+    //  those logins from taking write locks and writing the binlog for a delete that matches nothing
+    @Override
+    public void reset(String username) {
+        if (!jdbcTemplate.queryForList(HAS_FAILURES, Integer.class, username).isEmpty()) {
+            jdbcTemplate.update(RESET, username);
+        }
+    }
+
+    public void sweep(long nowMillis) {
+        jdbcTemplate.update(SWEEP, bucketOf(nowMillis) - LOGIN_ATTEMPT_BUCKETS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdown();
+    }
+
+    private long bucketOf(long nowMillis) {
+        return nowMillis / LOGIN_ATTEMPT_BUCKET_MS;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.model.user.User;
+import com.example.springsecurity.service.facade.LastLoginService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.springsecurity.constants.UserImplConstants.*;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+//  collects last login dates in memory and writes them in jdbc batches from a background thread,
+//  several logins of the same user between two flushes end up as a single row update
+@Service
+public class LastLoginServiceImpl implements LastLoginService {
+    private static final String UPDATE_LAST_LOGIN = "update user set last_login_date = ?, last_login_date_display = ? where id = ?";
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    private JdbcTemplate jdbcTemplate;
+    private Map<Long, LastLogin> pendingLogins = new ConcurrentHashMap<>();
+    private AtomicBoolean flushRequested = new AtomicBoolean();
+    private ScheduledExecutorService writer;
+
+    @Autowired
+    public LastLoginServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "last-login-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer.scheduleWithFixedDelay(this::flushQuietly, LAST_LOGIN_FLUSH_INTERVAL_MS, LAST_LOGIN_FLUSH_INTERVAL_MS, MILLISECONDS);
+    }
+
+    @Override
+    public void recordLogin(User user) {
+        LastLogin lastLogin = new LastLogin(user.getLastLoginDate(), user.getLastLoginDateDisplay());
+        //  keep the display date of the first pending login so it still points at the previous session
+        pendingLogins.merge(user.getId(), lastLogin, (pending, next) -> new LastLogin(next.lastLoginDate, pending.lastLoginDateDisplay));
+        if (pendingLogins.size() >= LAST_LOGIN_BATCH_SIZE && flushRequested.compareAndSet(false, true)) {
+            writer.execute(this::flushQuietly);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        flushRequested.set(false);
+        if (pendingLogins.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>(pendingLogins.size());
+        for (Long id : pendingLogins.keySet()) {
+            LastLogin lastLogin = pendingLogins.remove(id);
+            if (lastLogin != null) {
+                batch.add(new Object[]{toTimestamp(lastLogin.lastLoginDate), toTimestamp(lastLogin.lastLoginDateDisplay), id});
+            }
+        }
+        jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch);
+        LOGGER.debug("Flushed {} last login updates", batch.size());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(LAST_LOGIN_SHUTDOWN_TIMEOUT_SECONDS, SECONDS);
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            //  a failed batch is dropped, last login dates are informational only
+            LOGGER.error("Could not flush last login updates: {}", e.getMessage());
+        }
+    }
+
+    private Timestamp toTimestamp(Date date) {
+        return date == null ? null : new Timestamp(date.getTime());
+    }
+
+    private static class LastLogin {
+        private final Date lastLoginDate;
+        private final Date lastLoginDateDisplay;
+
+        private LastLogin(Date lastLoginDate, Date lastLoginDateDisplay) {
+            this.lastLoginDate = lastLoginDate;
+            this.lastLoginDateDisplay = lastLoginDateDisplay;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.service.facade.LoginAttemptStore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.example.springsecurity.constants.SecurityConstant.*;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+//  in-process store, one small ring of atomic bucket counters per username and no locks on the hot path.
+//  it is the default on a single node and the embedded stand-in for the shared store in tests
+@Service
+@ConditionalOnProperty(name = LOGIN_ATTEMPT_STORE_PROPERTY, havingValue = "local", matchIfMissing = true)
+public class LocalLoginAttemptStore implements LoginAttemptStore {
+
+    private Map<String, AttemptWindow> attempts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService sweeper;
+
+    public LocalLoginAttemptStore() {
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-attempt-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sweeper.scheduleWithFixedDelay(() -> sweep(System.currentTimeMillis()),
+                LOGIN_ATTEMPT_BUCKET_MS, LOGIN_ATTEMPT_BUCKET_MS, MILLISECONDS);
+    }
+
+    @Override
+    public void recordFailure(String username, long nowMillis) {
+        attempts.computeIfAbsent(username, key -> new AttemptWindow()).increment(bucketOf(nowMillis));
+    }
+
+    @Override
+    public long countFailures(String username, long nowMillis) {
+        AttemptWindow window = attempts.get(username);
+        return window == null ? 0 : window.count(bucketOf(nowMillis));
+    }
+
+    @Override
+    public void reset(String username) {
+        attempts.remove(username);
+    }
+
+    //  drops usernames whose newest bucket has left the window, so idle keys do not pile up during an attack
+    public void sweep(long nowMillis) {
+        long bucket = bucketOf(nowMillis);
+        attempts.entrySet().removeIf(entry -> entry.getValue().count(bucket) == 0);
+    }
+
+    public int size() {
+        return attempts.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdown();
+    }
+
+    private long bucketOf(long nowMillis) {
+        return nowMillis / LOGIN_ATTEMPT_BUCKET_MS;
+    }
+
+    private static class AttemptWindow {
+        private final AtomicLongArray counts = new AtomicLongArray(LOGIN_ATTEMPT_BUCKETS);
+        private final AtomicLongArray bucketIds = new AtomicLongArray(LOGIN_ATTEMPT_BUCKETS);
+
+        private void increment(long bucket) {
+            int slot = (int) (bucket % LOGIN_ATTEMPT_BUCKETS);
+            long current = bucketIds.get(slot);
+            //  the slot still holds an old bucket, whoever wins the swap clears it. an increment racing
+            //  with that clear can be lost, which only matters for a single attempt at a bucket edge
+            if (current != bucket && bucketIds.compareAndSet(slot, current, bucket)) {
+                counts.set(slot, 0);
+            }
+            counts.incrementAndGet(slot);
+        }
+
+        private long count(long bucket) {
+            long total = 0;
+            for (int slot = 0; slot < LOGIN_ATTEMPT_BUCKETS; slot++) {
+                if (bucket - bucketIds.get(slot) < LOGIN_ATTEMPT_BUCKETS) {
+                    total += counts.get(slot);
+                }
+            }
+            return total;
+        }
+    }
+}
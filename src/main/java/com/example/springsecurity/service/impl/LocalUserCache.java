@@ -0,0 +1,104 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.model.user.User;
+import com.example.springsecurity.service.facade.UserCache;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Function;
+
+import static com.example.springsecurity.constants.UserImplConstants.USER_CACHE_MAX_SIZE;
+import static com.example.springsecurity.constants.UserImplConstants.USER_CACHE_TTL_MINUTES;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+//  in-process cache, every caller gets its own copy so cached users are never modified in place
+@Service
+public class LocalUserCache implements UserCache {
+    private Cache<String, User> usersByUsername;
+    private Cache<String, User> usersByEmail;
+
+    @Autowired
+    public LocalUserCache(MeterRegistry meterRegistry) {
+        this.usersByUsername = newCache();
+        this.usersByEmail = newCache();
+        Gauge.builder("user.cache.hit.ratio", this, UserCache::hitRatio).register(meterRegistry);
+        FunctionCounter.builder("user.cache.evictions", this, UserCache::evictionCount).register(meterRegistry);
+        Gauge.builder("user.cache.size", this, cache -> usersByUsername.size() + usersByEmail.size()).register(meterRegistry);
+    }
+
+    @Override
+    public User getByUsername(String username, Function<String, User> loader) {
+        return get(usersByUsername, username, loader);
+    }
+
+    @Override
+    public User getByEmail(String email, Function<String, User> loader) {
+        return get(usersByEmail, email, loader);
+    }
+
+    @Override
+    public void put(User user) {
+        User cached = copyOf(user);
+        if (user.getUsername() != null) {
+            usersByUsername.put(user.getUsername(), cached);
+        }
+        if (user.getEmail() != null) {
+            usersByEmail.put(user.getEmail(), cached);
+        }
+    }
+
+    @Override
+    public void evict(User user) {
+        if (user.getUsername() != null) {
+            usersByUsername.invalidate(user.getUsername());
+        }
+        if (user.getEmail() != null) {
+            usersByEmail.invalidate(user.getEmail());
+        }
+    }
+
+    @Override
+    public double hitRatio() {
+        return usersByUsername.stats().plus(usersByEmail.stats()).hitRate();
+    }
+
+    @Override
+    public long evictionCount() {
+        CacheStats stats = usersByUsername.stats().plus(usersByEmail.stats());
+        return stats.evictionCount();
+    }
+
+    private User get(Cache<String, User> cache, String key, Function<String, User> loader) {
+        if (key == null) {
+            return null;
+        }
+        User cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        //  misses are not cached, so a user created right after a failed lookup is found at once
+        User user = loader.apply(key);
+        if (user != null) {
+            put(user);
+        }
+        return user;
+    }
+
+    private Cache<String, User> newCache() {
+        return CacheBuilder.newBuilder().expireAfterWrite(USER_CACHE_TTL_MINUTES, MINUTES)
+                .maximumSize(USER_CACHE_MAX_SIZE).recordStats().build();
+    }
+
+    private User copyOf(User user) {
+        return new User(user.getId(), user.getUserId(), user.getFirstname(), user.getLastname(), user.getUsername(),
+                user.getPassword(), user.getEmail(), user.getProfileImageUrl(), user.getLastLoginDate(),
+                user.getLastLoginDateDisplay(), user.getJoinDate(), user.getRole(),
+                user.isActive(), user.isNotLocked(), user.getProfileImageHash());
+    }
+}
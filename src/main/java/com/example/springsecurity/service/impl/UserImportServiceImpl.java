@@ -0,0 +1,256 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.domain.UserImportResult;
+import com.example.springsecurity.domain.UserImportRow;
+import com.example.springsecurity.enumeration.ImportStatus;
+import com.example.springsecurity.enumeration.Role;
+import com.example.springsecurity.model.user.User;
+import com.example.springsecurity.repository.UserRepository;
+import com.example.springsecurity.service.facade.UserImportService;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.example.springsecurity.constants.UserImplConstants.*;
+
+//  bulk creation in chunks: rows are validated in memory, checked against the database with one query per unique
+//  key, hashed in parallel on a pool of their own and inserted as jdbc batches in one transaction per chunk.
+//  if a concurrent request takes a name in the meantime the chunk is retried row by row to find the conflict
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private UserRepository userRepository;
+    private BCryptPasswordEncoder passwordEncoder;
+    private EmailService emailService;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService hashingExecutor;
+
+    @Autowired
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 BCryptPasswordEncoder passwordEncoder,
+                                 EmailService emailService,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.emailService = emailService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashingExecutor = Executors.newFixedThreadPool(USER_IMPORT_HASHING_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void importUsers(Iterator<UserImportRow> rows, String placeholderImageBaseUrl, Consumer<UserImportResult> results) {
+        //  names already used earlier in this import, the database cannot see them until their chunk commits
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<UserImportRow> chunk = new ArrayList<>(USER_IMPORT_CHUNK_SIZE);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == USER_IMPORT_CHUNK_SIZE) {
+                importChunk(chunk, seenUsernames, seenEmails, placeholderImageBaseUrl).forEach(results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenUsernames, seenEmails, placeholderImageBaseUrl).forEach(results);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    private List<UserImportResult> importChunk(List<UserImportRow> chunk, Set<String> seenUsernames, Set<String> seenEmails,
+                                               String placeholderImageBaseUrl) {
+        UserImportResult[] results = new UserImportResult[chunk.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            UserImportRow row = chunk.get(i);
+            String problem = validate(row);
+            if (problem != null) {
+                results[i] = result(row, ImportStatus.INVALID, problem);
+            } else if (!seenUsernames.add(normalize(row.getUsername()))) {
+                results[i] = result(row, ImportStatus.USERNAME_EXISTS, USERNAME_REPEATED_IN_IMPORT);
+            } else if (!seenEmails.add(normalize(row.getEmail()))) {
+                results[i] = result(row, ImportStatus.EMAIL_EXISTS, EMAIL_REPEATED_IN_IMPORT);
+            } else {
+                accepted.add(i);
+            }
+        }
+        if (!accepted.isEmpty()) {
+            createUsers(chunk, accepted, results, placeholderImageBaseUrl);
+        }
+        List<UserImportResult> ordered = new ArrayList<>(results.length);
+        for (UserImportResult result : results) {
+            ordered.add(result);
+        }
+        return ordered;
+    }
+
+    private void createUsers(List<UserImportRow> chunk, List<Integer> accepted, UserImportResult[] results,
+                             String placeholderImageBaseUrl) {
+        Set<String> existingUsernames = normalized(userRepository.findExistingUsernames(column(chunk, accepted, true)));
+        Set<String> existingEmails = normalized(userRepository.findExistingEmails(column(chunk, accepted, false)));
+        List<Integer> creatable = new ArrayList<>();
+        for (int i : accepted) {
+            UserImportRow row = chunk.get(i);
+            if (existingUsernames.contains(normalize(row.getUsername()))) {
+                results[i] = result(row, ImportStatus.USERNAME_EXISTS, USERNAME_ALREADY_EXISTS);
+            } else if (existingEmails.contains(normalize(row.getEmail()))) {
+                results[i] = result(row, ImportStatus.EMAIL_EXISTS, EMAIL_ALREADY_EXISTS);
+            } else {
+                creatable.add(i);
+            }
+        }
+        if (creatable.isEmpty()) {
+            return;
+        }
+
+        List<String> passwords = new ArrayList<>(creatable.size());
+        List<CompletableFuture<String>> hashes = new ArrayList<>(creatable.size());
+        for (int ignored : creatable) {
+            String password = RandomStringUtils.randomAlphanumeric(10);
+            passwords.add(password);
+            hashes.add(CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), hashingExecutor));
+        }
+        List<User> users = new ArrayList<>(creatable.size());
+        for (int n = 0; n < creatable.size(); n++) {
+            users.add(newUser(chunk.get(creatable.get(n)), hashes.get(n).join(), placeholderImageBaseUrl));
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(users, passwords));
+            for (int i : creatable) {
+                results[i] = result(chunk.get(i), ImportStatus.CREATED, null);
+            }
+        } catch (DataIntegrityViolationException e) {
+            for (int n = 0; n < creatable.size(); n++) {
+                int i = creatable.get(n);
+                results[i] = createOne(chunk.get(i), users.get(n), passwords.get(n));
+            }
+        }
+    }
+
+    private UserImportResult createOne(UserImportRow row, User user, String password) {
+        try {
+            user.setId(null);
+            transactionTemplate.executeWithoutResult(status -> persist(List.of(user), List.of(password)));
+            return result(row, ImportStatus.CREATED, null);
+        } catch (DataIntegrityViolationException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (message.contains(USERNAME_UNIQUE_KEY)) {
+                return result(row, ImportStatus.USERNAME_EXISTS, USERNAME_ALREADY_EXISTS);
+            }
+            if (message.contains(EMAIL_UNIQUE_KEY)) {
+                return result(row, ImportStatus.EMAIL_EXISTS, EMAIL_ALREADY_EXISTS);
+            }
+            return result(row, ImportStatus.FAILED, message);
+        }
+    }
+
+    //  users first and flushed as one batch, then the outbox rows, so the two kinds of insert are not interleaved
+    private void persist(List<User> users, List<String> passwords) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(USER_IMPORT_BATCH_SIZE);
+        for (User user : users) {
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        for (int n = 0; n < users.size(); n++) {
+            User user = users.get(n);
+            emailService.sendNewPasswordEmail(user.getFirstname(), passwords.get(n), user.getEmail());
+        }
+    }
+
+    private User newUser(UserImportRow row, String passwordHash, String placeholderImageBaseUrl) {
+        Role role = Role.valueOf(row.getRole().toUpperCase(Locale.ROOT));
+        User user = new User();
+        user.setUserId(RandomStringUtils.randomNumeric(10));
+        user.setPassword(passwordHash);
+        user.setFirstname(row.getFirstname());
+        user.setLastname(row.getLastname());
+        user.setUsername(row.getUsername().trim());
+        user.setEmail(row.getEmail().trim());
+        user.setActive(row.getIsActive() == null || Boolean.parseBoolean(row.getIsActive()));
+        user.setNotLocked(row.getIsNonLocked() == null || Boolean.parseBoolean(row.getIsNonLocked()));
+        user.setJoinDate(new Date());
+        user.setRole(role.name());
+        user.setProfileImageUrl(placeholderImageBaseUrl + user.getUsername());
+        return user;
+    }
+
+    private String validate(UserImportRow row) {
+        if (row.getParseError() != null) {
+            return row.getParseError();
+        }
+        if (StringUtils.isBlank(row.getUsername())) {
+            return "Username is required";
+        }
+        if (StringUtils.isBlank(row.getEmail()) || !row.getEmail().contains("@")) {
+            return "A valid email is required";
+        }
+        if (StringUtils.isBlank(row.getRole())) {
+            return "Role is required";
+        }
+        try {
+            Role.valueOf(row.getRole().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return "Unknown role " + row.getRole();
+        }
+        return null;
+    }
+
+    private static Collection<String> column(List<UserImportRow> chunk, List<Integer> indexes, boolean usernames) {
+        List<String> values = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            values.add(usernames ? chunk.get(i).getUsername() : chunk.get(i).getEmail());
+        }
+        return values;
+    }
+
+    //  MySQL compares the unique keys case-insensitively, so the in-memory checks do too
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> normalized(Collection<String> values) {
+        Set<String> normalized = new HashSet<>();
+        for (String value : values) {
+            normalized.add(normalize(value));
+        }
+        return normalized;
+    }
+
+    private static UserImportResult result(UserImportRow row, ImportStatus status, String message) {
+        return new UserImportResult(row.getLine(), row.getUsername(), status, message);
+    }
+}
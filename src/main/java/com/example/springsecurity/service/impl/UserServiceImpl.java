@@ -1,83 +1,125 @@
 package com.example.springsecurity.service.impl;
 
+import com.example.springsecurity.domain.UserConflicts;
 import com.example.springsecurity.domain.UserPrincipal;
+import com.example.springsecurity.domain.UserSummary;
 import com.example.springsecurity.enumeration.Role;
 import com.example.springsecurity.exception.domain.EmailExistException;
 import com.example.springsecurity.exception.domain.EmailNotFoundException;
 import com.example.springsecurity.exception.domain.UsernameExistException;
 import com.example.springsecurity.model.user.User;
 import com.example.springsecurity.repository.UserRepository;
+import com.example.springsecurity.service.facade.ImageStore;
+import com.example.springsecurity.service.facade.LastLoginService;
+import com.example.springsecurity.service.facade.LoginAttemptService;
+import com.example.springsecurity.service.facade.UserCache;
 import com.example.springsecurity.service.facade.UserService;
+import com.example.springsecurity.utility.BoundedPasswordEncoder;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import javax.transaction.Transactional;
+import javax.persistence.EntityManager;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.example.springsecurity.constants.FileConstant.*;
 import static com.example.springsecurity.constants.UserImplConstants.*;
 import static com.example.springsecurity.enumeration.Role.ROLE_USER;
-import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static com.example.springsecurity.utility.SamplingTurboFilter.SAMPLED;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 
 
 @Service
-@Transactional
+@Transactional(rollbackFor = {UsernameExistException.class, EmailExistException.class})
 @Qualifier("UserDetailsService")
 public class UserServiceImpl implements UserService {
 
     private UserRepository userRepository;
-    private BCryptPasswordEncoder passwordEncoder;
-    private LoginAttemptServiceImpl loginAttemptService;
+    private BoundedPasswordEncoder passwordEncoder;
+    private LoginAttemptService loginAttemptService;
     private EmailService emailService;
+    private LastLoginService lastLoginService;
+    private EntityManager entityManager;
+    private UserCache userCache;
+    private ImageStore imageStore;
+    private TransactionTemplate transactionTemplate;
+    private Set<Long> pendingPasswordUpgrades = ConcurrentHashMap.newKeySet();
     //to show the error on the logger you will need this:
     private Logger LOGGER = LoggerFactory.getLogger(getClass());
 
 
     @Autowired
     public UserServiceImpl(UserRepository userRepository,
-                           BCryptPasswordEncoder passwordEncoder,
-                           LoginAttemptServiceImpl loginAttemptService,
-                           EmailService emailService) {
+                           BoundedPasswordEncoder passwordEncoder,
+                           LoginAttemptService loginAttemptService,
+                           EmailService emailService,
+                           LastLoginService lastLoginService,
+                           EntityManager entityManager,
+                           UserCache userCache,
+                           ImageStore imageStore,
+                           PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.loginAttemptService = loginAttemptService;
         this.emailService = emailService;
+        this.lastLoginService = lastLoginService;
+        this.entityManager = entityManager;
+        this.userCache = userCache;
+        this.imageStore = imageStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        //the password hash and the flags are checked against this copy, so it is never served from the cache
         User user = userRepository.findUserByUsername(username);
         if (user == null) {
             //log it on the console
-            LOGGER.error(NO_USER_FOUND_BY_USERNAME + username);
+            LOGGER.error(NO_USER_FOUND_BY_USERNAME + "{}", username);
             //throw exception
             throw new UsernameNotFoundException(NO_USER_FOUND_BY_USERNAME + username);
         } else {
+            //detach so neither the lock flag nor the last login dates below are flushed with this transaction
+            entityManager.detach(user);
+            boolean wasNotLocked = user.isNotLocked();
             validateLoginAttempt(user);
-            //if the user is found we want to update it first
+            //locking the account is rare and must be visible right away, only the flag is written so a
+            //concurrent edit of the other columns is not overwritten
+            if (wasNotLocked && !user.isNotLocked()) {
+                userRepository.lockUser(user.getId());
+                evictAfterCommit(user);
+            }
             user.setLastLoginDateDisplay(user.getLastLoginDate());
             user.setLastLoginDate(new Date());
-            userRepository.save(user);
+            lastLoginService.recordLogin(user);
             //then return the UserDetails
             UserPrincipal userPrincipal = new UserPrincipal(user);
-            LOGGER.info("Returning user found by username: " + username);
+            //one line per login is the bulk of the log volume, only a sample of them is kept
+            LOGGER.info(SAMPLED, "Returning user found by username: {}", username);
             return userPrincipal;
         }
     }
@@ -97,11 +139,9 @@ public class UserServiceImpl implements UserService {
         registerUser.setActive(true);
         registerUser.setNotLocked(true);
         registerUser.setRole(ROLE_USER.name());
-        registerUser.setAuthorities(ROLE_USER.getUserAuthorities());
         registerUser.setProfileImageUrl(getTemporaryProfileImageUrl(user.getUsername()));
-        //emailService.sendNewPasswordEmail(user.getFirstname(), password,user.getEmail());
-        userRepository.save(registerUser);
-        LOGGER.info("new user password : "+ password);
+        emailService.sendNewPasswordEmail(user.getFirstname(), password,user.getEmail());
+        saveUser(registerUser);
         return registerUser;
     }
 
@@ -121,10 +161,9 @@ public class UserServiceImpl implements UserService {
         newUser.setNotLocked(user.isNotLocked());
         newUser.setJoinDate(new Date());
         newUser.setRole(getRoleEnumName(user.getRole()).name());
-        newUser.setAuthorities(getRoleEnumName(user.getRole()).getUserAuthorities());
         newUser.setProfileImageUrl(getTemporaryProfileImageUrl(user.getUsername()));
-        //emailService.sendNewPasswordEmail(user.getFirstname(), password,user.getEmail());
-        userRepository.save(newUser);
+        emailService.sendNewPasswordEmail(user.getFirstname(), password,user.getEmail());
+        saveUser(newUser);
         saveProfileImage(newUser, profileImage);
         return newUser;
     }
@@ -133,23 +172,30 @@ public class UserServiceImpl implements UserService {
     @Override
     public User updateUser(String currentUsername, User newUser, MultipartFile profileImage) throws EmailExistException, UsernameExistException {
         User currentUser = validateNewUsernameAndEmail(currentUsername, newUser.getUsername(), newUser.getEmail());
+        evictAfterCommit(currentUser);
         currentUser.setUserId(generateUserId());
         currentUser.setUsername(newUser.getUsername());
         currentUser.setFirstname(newUser.getFirstname());
         currentUser.setLastname(newUser.getLastname());
         currentUser.setEmail(newUser.getEmail());
         currentUser.setRole(getRoleEnumName(newUser.getRole()).name());
-        currentUser.setAuthorities(getRoleEnumName(newUser.getRole()).getUserAuthorities());
         currentUser.setActive(newUser.isActive());
         currentUser.setNotLocked(newUser.isNotLocked());
         //emailService.sendNewPasswordEmail(user.getFirstname(), password,user.getEmail());
-        userRepository.save(currentUser);
+        saveUser(currentUser);
         saveProfileImage(currentUser, profileImage);
+        evictAfterCommit(currentUser);
         return currentUser;
     }
 
     @Override
     public void deleteUser(long id) {
+        userRepository.findById(id).ifPresent(user -> {
+            evictAfterCommit(user);
+            if (user.getProfileImageHash() != null) {
+                imageStore.removeReference(user.getProfileImageHash());
+            }
+        });
         userRepository.deleteById(id);
     }
 
@@ -162,29 +208,84 @@ public class UserServiceImpl implements UserService {
         String password = generatePassword();
         user.setPassword(encodePassword(password));
         userRepository.save(user);
-        //emailService.sendNewPasswordEmail(user.getFirstname(), password,email);
+        evictAfterCommit(user);
+        emailService.sendNewPasswordEmail(user.getFirstname(), password,email);
     }
 
     @Override
     public User updateProfileImage(String username, MultipartFile profileImage) throws EmailExistException, UsernameExistException {
         User user = validateNewUsernameAndEmail(username, null, null);
         saveProfileImage(user, profileImage);
+        evictAfterCommit(user);
         return user;
     }
 
+    //  the body arrives at the client's pace, so it is stored before a transaction takes a pooled connection.
+    //  a blob left behind by an unknown username is removed by the image store's collection
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public User updateProfileImage(String username, InputStream profileImage) throws IOException {
+        String hash = imageStore.store(profileImage);
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findUserByUsername(username);
+            if (user == null) {
+                throw new UsernameNotFoundException(NO_USER_FOUND_BY_USERNAME + username);
+            }
+            applyProfileImage(user, hash);
+            evictAfterCommit(user);
+            return user;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSummary> getUsers(long afterId, int limit) {
+        return userRepository.findSummariesAfter(afterId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUsers(Consumer<UserSummary> consumer) {
+        try (Stream<UserSummary> users = userRepository.streamSummaries()) {
+            users.forEach(consumer);
+        }
+    }
+
     @Override
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    @Transactional(readOnly = true)
+    public UserSummary findUserSummaryByUsername(String username) {
+        User user = findUserByUsername(username);
+        return user == null ? null : UserSummary.from(user);
+    }
+
+    @Override
+    public void upgradePasswordEncodingIfNeeded(User user, String rawPassword) {
+        String currentPassword = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(currentPassword) || !pendingPasswordUpgrades.add(user.getId())) {
+            return;
+        }
+        passwordEncoder.encodeAsync(rawPassword).whenComplete((newPassword, error) -> {
+            try {
+                if (error == null) {
+                    userRepository.updatePassword(user.getId(), currentPassword, newPassword);
+                    userCache.evict(user);
+                } else {
+                    LOGGER.warn("Could not rehash password of user {}: {}", user.getUsername(), error.getMessage());
+                }
+            } finally {
+                pendingPasswordUpgrades.remove(user.getId());
+            }
+        });
     }
 
     @Override
     public User findUserByUsername(String username) {
-        return userRepository.findUserByUsername(username);
+        return userCache.getByUsername(username, userRepository::findUserByUsername);
     }
 
     @Override
     public User findUserByEmail(String email) {
-        return userRepository.findUserByEmail(email);
+        return userCache.getByEmail(email, userRepository::findUserByEmail);
     }
 
 
@@ -218,56 +319,88 @@ public class UserServiceImpl implements UserService {
     }
 
     private User validateNewUsernameAndEmail(String currentUsername, String newUsername, String newEmail) throws UsernameExistException, EmailExistException {
-        User userByNewUsername = findUserByUsername(newUsername);
-        User userByNewEmail = findUserByEmail(newEmail);
-
+        User currentUser = null;
         if (StringUtils.isNotBlank(currentUsername)) {
-            User currentUser = findUserByUsername(currentUsername);
+            //edits need the managed entity, so this lookup skips the cache
+            currentUser = userRepository.findUserByUsername(currentUsername);
             if (currentUser == null) {
                 throw new UsernameNotFoundException(NO_USER_FOUND_BY_USERNAME + currentUsername);
             }
-
-            if (userByNewUsername != null && !currentUser.getId().equals(userByNewUsername.getId())) {
+        }
+        if (newUsername != null || newEmail != null) {
+            Long excludedId = currentUser == null ? NO_USER_ID : currentUser.getId();
+            UserConflicts conflicts = userRepository.findConflicts(newUsername, newEmail, excludedId);
+            if (conflicts.isUsernameTaken()) {
                 throw new UsernameExistException(USERNAME_ALREADY_EXISTS);
             }
-
-            if (userByNewEmail != null && !currentUser.getId().equals(userByNewEmail.getId())) {
+            if (conflicts.isEmailTaken()) {
                 throw new EmailExistException(EMAIL_ALREADY_EXISTS);
             }
-            return currentUser;
-        } else {
-            if (userByNewUsername != null) {
+        }
+        return currentUser;
+    }
+
+    //  the unique keys settle races the existence check cannot see, so flush now and report them like the check would
+    private void saveUser(User user) throws UsernameExistException, EmailExistException {
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (message.contains(USERNAME_UNIQUE_KEY)) {
                 throw new UsernameExistException(USERNAME_ALREADY_EXISTS);
             }
-            if (userByNewEmail != null) {
+            if (message.contains(EMAIL_UNIQUE_KEY)) {
                 throw new EmailExistException(EMAIL_ALREADY_EXISTS);
             }
+            throw e;
         }
-        return null;
     }
 
     private void saveProfileImage(User user, MultipartFile profileImage) {
         if (profileImage != null) {
             try {
-                Path userFolder = Paths.get(USER_FOLDER + user.getUsername()).toAbsolutePath().normalize();
-                if (!Files.exists(userFolder)) {
-                    Files.createDirectories(userFolder);
-                    LOGGER.info(DIRECTORY_CREATED + userFolder);
-                }
-                Files.deleteIfExists(Paths.get(USER_FOLDER + user.getUsername() + DOT + JPG_EXTENSION));
-                Files.copy(profileImage.getInputStream(), userFolder.resolve(user.getUsername() + DOT + JPG_EXTENSION), REPLACE_EXISTING);
-                user.setProfileImageUrl(setProfileImageUrl(user.getUsername()));
-                userRepository.save(user);
-                LOGGER.info(FILE_SAVED_IN_FILE_SYSTEM + profileImage.getOriginalFilename());
+                applyProfileImage(user, imageStore.store(profileImage.getInputStream()));
+                LOGGER.info(FILE_SAVED_IN_FILE_SYSTEM + "{}", profileImage.getOriginalFilename());
             } catch (IOException e) {
-                e.printStackTrace();
+                LOGGER.error("Could not store profile image of user {}", user.getUsername(), e);
+            }
+        }
+    }
+
+    //  the user row is managed here, so the new hash and url are written by dirty checking when the transaction commits
+    private void applyProfileImage(User user, String hash) {
+        String previousHash = user.getProfileImageHash();
+        if (!hash.equals(previousHash)) {
+            imageStore.addReference(hash);
+            if (previousHash != null) {
+                imageStore.removeReference(previousHash);
             }
+            user.setProfileImageHash(hash);
+            user.setProfileImageUrl(setProfileImageUrl(hash));
         }
     }
 
-    private String setProfileImageUrl(String username) {
-        return ServletUriComponentsBuilder.fromCurrentContextPath().path(USER_IMAGE_PATH + username + FORWARD_SLASH
-                + username + DOT + JPG_EXTENSION).toUriString();
+    //  evicting before the commit lets a concurrent lookup load the old row and cache it again for the whole ttl.
+    //  the keys are copied now because an edit may still change the username or email before the commit
+    private void evictAfterCommit(User user) {
+        User keys = new User();
+        keys.setUsername(user.getUsername());
+        keys.setEmail(user.getEmail());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userCache.evict(keys);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userCache.evict(keys);
+            }
+        });
+    }
+
+    private String setProfileImageUrl(String hash) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().path(USER_BLOB_PATH + hash + DOT + JPG_EXTENSION)
+                .toUriString();
     }
 
     private Role getRoleEnumName(String role) {
@@ -0,0 +1,66 @@
+package com.example.springsecurity.utility;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static com.example.springsecurity.constants.SecurityConstant.*;
+
+//  bcrypt encoder whose work factor can be calibrated at startup to a target hash time on this node,
+//  hashes made with any other work factor are reported by upgradeEncoding so they can be rehashed on login
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private int strength;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    //  a target of 0 or less keeps the default strength
+    public static AdaptiveBCryptPasswordEncoder forTargetHashTime(long targetHashMillis) {
+        int strength = targetHashMillis > 0 ? calibrate(targetHashMillis) : BCRYPT_DEFAULT_STRENGTH;
+        LOGGER.info("Using bcrypt strength {} for a target hash time of {} ms", strength, targetHashMillis);
+        return new AdaptiveBCryptPasswordEncoder(strength);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int encodedStrength = strengthOf(encodedPassword);
+        //  only weaker hashes are upgraded, nodes calibrated to different strengths would otherwise rehash on every login
+        return encodedStrength > 0 && encodedStrength < strength;
+    }
+
+    //  every extra round doubles the cost, so measure one strength and extrapolate from there
+    static int calibrate(long targetHashMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(BCRYPT_MIN_STRENGTH);
+        probe.encode(CALIBRATION_PASSWORD);
+        long start = System.nanoTime();
+        probe.encode(CALIBRATION_PASSWORD);
+        double elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000.0, 0.001);
+        int strength = BCRYPT_MIN_STRENGTH;
+        while (strength < BCRYPT_MAX_STRENGTH && elapsedMillis * 2 <= targetHashMillis) {
+            elapsedMillis *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    //  bcrypt hashes look like $2a$10$..., the two digits after the version are the strength
+    static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.springsecurity.utility;
+
+import com.example.springsecurity.enumeration.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//  shares one immutable authority list per set of claims, the sets are fixed by the Role enum
+public final class AuthorityInterner {
+    private static final int MAX_INTERNED_SETS = 64;
+    private static final Map<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+    private static final Map<List<String>, List<GrantedAuthority>> AUTHORITY_SETS = new ConcurrentHashMap<>();
+    private static final Map<Role, List<GrantedAuthority>> ROLE_AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            ROLE_AUTHORITIES.put(role, intern(role.getUserAuthorities()));
+        }
+    }
+
+    private AuthorityInterner() {
+    }
+
+    public static List<GrantedAuthority> forRole(Role role) {
+        return role == null ? Collections.emptyList() : ROLE_AUTHORITIES.get(role);
+    }
+
+    public static List<GrantedAuthority> intern(String[] authorities) {
+        if (authorities == null || authorities.length == 0) {
+            return Collections.emptyList();
+        }
+        List<GrantedAuthority> interned = AUTHORITY_SETS.get(Arrays.asList(authorities));
+        if (interned != null) {
+            return interned;
+        }
+        List<GrantedAuthority> grantedAuthorities = new ArrayList<>(authorities.length);
+        for (String authority : authorities) {
+            grantedAuthorities.add(AUTHORITIES.computeIfAbsent(authority, SimpleGrantedAuthority::new));
+        }
+        grantedAuthorities = Collections.unmodifiableList(grantedAuthorities);
+        //  claims are signed by us so the number of sets stays small, the cap only guards against surprises
+        if (AUTHORITY_SETS.size() < MAX_INTERNED_SETS) {
+            List<GrantedAuthority> existing = AUTHORITY_SETS.putIfAbsent(Arrays.asList(authorities.clone()), grantedAuthorities);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return grantedAuthorities;
+    }
+}
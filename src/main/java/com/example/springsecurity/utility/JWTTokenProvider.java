@@ -4,65 +4,116 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.springsecurity.domain.UserPrincipal;
+import com.example.springsecurity.domain.VerifiedToken;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static com.example.springsecurity.constants.SecurityConstant.*;
-import static java.util.Arrays.stream;
 
 public class JWTTokenProvider {
     @Value("${jwt.secret}")
     private String secret;
 
+    //  built once at startup, both are thread safe and can be shared by all requests
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+    private VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache();
+    private WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+    private Telemetry telemetry;
+
+    public JWTTokenProvider() {
+        this(Telemetry.noop());
+    }
+
+    public JWTTokenProvider(Telemetry telemetry) {
+        this.telemetry = telemetry;
+        MeterRegistry meterRegistry = telemetry.getMeterRegistry();
+        FunctionCounter.builder("jwt.verified.cache.hits", verifiedTokenCache, VerifiedTokenCache::hitCount).register(meterRegistry);
+        FunctionCounter.builder("jwt.verified.cache.misses", verifiedTokenCache, VerifiedTokenCache::missCount).register(meterRegistry);
+        Gauge.builder("jwt.verified.cache.size", verifiedTokenCache, VerifiedTokenCache::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        this.algorithm = Algorithm.HMAC256(secret.getBytes());
+        this.verifier = getJwtVerifier();
+    }
+
     //  generate the token
     public String generateJwtToken(UserPrincipal userPrincipal) {
-        String[] claims = getClaimsFromUser(userPrincipal);
-        return JWT.create().withIssuer(GET_ARRAYS_LLC)
-                .withAudience(GET_ARRAYS_ADMINISTRATION)
-                .withIssuedAt(new Date())
-                .withSubject(userPrincipal.getUsername())
-                .withArrayClaim(AUTHORITIES, claims)
-                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(Algorithm.HMAC256(secret.getBytes()));
+        return telemetry.observe("jwt.sign", Tags.empty(), () -> {
+            String[] claims = getClaimsFromUser(userPrincipal);
+            return JWT.create().withIssuer(GET_ARRAYS_LLC)
+                    .withAudience(GET_ARRAYS_ADMINISTRATION)
+                    .withIssuedAt(new Date())
+                    .withSubject(userPrincipal.getUsername())
+                    .withArrayClaim(AUTHORITIES, claims)
+                    .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                    .sign(algorithm);
+        });
+    }
+
+    //  verify the signature once and read subject, expiry and authorities from the decoded token,
+    //  a token seen before is served from the cache without any signature work
+    public VerifiedToken verifyToken(String token) {
+        VerifiedToken verifiedToken = verifiedTokenCache.get(token);
+        if (verifiedToken == null) {
+            verifiedToken = telemetry.observe("jwt.verify", Tags.empty(), () -> {
+                DecodedJWT decodedJWT = verifier.verify(token);
+                String[] claims = decodedJWT.getClaim(AUTHORITIES).asArray(String.class);
+                return new VerifiedToken(decodedJWT.getSubject(), decodedJWT.getExpiresAt(), toAuthorities(claims));
+            });
+            verifiedTokenCache.put(token, verifiedToken);
+        }
+        return verifiedToken;
+    }
+
+    public VerifiedTokenCache getVerifiedTokenCache() {
+        return verifiedTokenCache;
+    }
+
+    //  verify if the already verified token is valid
+    public boolean isValidToken(VerifiedToken verifiedToken) {
+        return StringUtils.isNotBlank(verifiedToken.getSubject()) && verifiedToken.isNotExpired();
     }
 
     //  verify if the token is valid
     public boolean isValidToken(String username, String token) {
-        JWTVerifier verifier = getJwtVerifier();
-        return StringUtils.isNotBlank(username) && isTokenNotExpired(verifier, token);
+        return StringUtils.isNotBlank(username) && isTokenNotExpired(token);
     }
 
     //  get the token authorities
     public List<GrantedAuthority> getAuthorities(String token) {
-        String[] claims = getClaimsFromToken(token);
-        return stream(claims).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return toAuthorities(getClaimsFromToken(token));
     }
 
     //  get the authentication once the token is verified
     public Authentication getAuthentication(String username, List<GrantedAuthority> authorities, HttpServletRequest request) {
         UsernamePasswordAuthenticationToken authenticationToken = new
                 UsernamePasswordAuthenticationToken(username, null, authorities);
-        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        authenticationToken.setDetails(authenticationDetailsSource.buildDetails(request));
         return authenticationToken;
     }
 
     //  get the subject
     public String getSubject(String token) {
-        JWTVerifier verifier = getJwtVerifier();
-        String subject = verifier.verify(token).getSubject();
-        return subject;
+        return verifier.verify(token).getSubject();
     }
 
 //     private helper methods
@@ -75,21 +126,23 @@ public class JWTTokenProvider {
         return authorities.toArray(new String[0]);
     }
 
-    private boolean isTokenNotExpired(JWTVerifier verifier, String token) {
+    private List<GrantedAuthority> toAuthorities(String[] claims) {
+        return AuthorityInterner.intern(claims);
+    }
+
+    private boolean isTokenNotExpired(String token) {
         Date expiration = verifier.verify(token).getExpiresAt();
         return expiration.after(new Date());
     }
 
 
     private String[] getClaimsFromToken(String token) {
-        JWTVerifier verifier = getJwtVerifier();
         return verifier.verify(token).getClaim(AUTHORITIES).asArray(String.class);
     }
 
     private JWTVerifier getJwtVerifier() {
         JWTVerifier verifier;
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             verifier = JWT.require(algorithm).withIssuer(GET_ARRAYS_LLC).build();
         } catch (JWTVerificationException verificationException) {
             throw new JWTVerificationException(TOKEN_CANNOT_BE_VERIFIED);
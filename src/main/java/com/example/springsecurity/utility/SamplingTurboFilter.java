@@ -0,0 +1,31 @@
+package com.example.springsecurity.utility;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//  keeps one in every `rate` events logged with the SAMPLED marker and lets everything else through untouched.
+//  the decision is made before the message is formatted, so dropped events cost one counter increment
+public class SamplingTurboFilter extends TurboFilter {
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private AtomicLong counter = new AtomicLong();
+    private long rate = 1;
+
+    public void setRate(long rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || !marker.contains(SAMPLED) || !logger.isEnabledFor(level)) {
+            return FilterReply.NEUTRAL;
+        }
+        return counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.springsecurity.utility;
+
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+//  times and traces every public method of the user, login attempt, email and user import services as service.method{class,method}
+@Aspect
+@Component
+public class ServiceTelemetryAspect {
+    private static final String SERVICE_METHOD = "service.method";
+
+    private Telemetry telemetry;
+
+    @Autowired
+    public ServiceTelemetryAspect(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    @Around("execution(public * com.example.springsecurity.service.impl.UserServiceImpl.*(..))"
+            + " || execution(public * com.example.springsecurity.service.impl.LoginAttemptServiceImpl.*(..))"
+            + " || execution(public * com.example.springsecurity.service.impl.EmailService.*(..))"
+            + " || execution(public * com.example.springsecurity.service.impl.UserImportServiceImpl.*(..))")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        Tags tags = Tags.of("class", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                "method", joinPoint.getSignature().getName());
+        return telemetry.observe(SERVICE_METHOD, tags, joinPoint::proceed);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springsecurity.utility;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+//  one call records both a timer with a percentile histogram and a tracing span of the same name. the span is
+//  current while the work runs, so nested calls become its children
+public class Telemetry {
+    private static final String INSTRUMENTATION_NAME = "com.example.springsecurity";
+    private static final String EXCEPTION_TAG = "exception";
+    private static final String NO_EXCEPTION = "none";
+
+    private MeterRegistry meterRegistry;
+    private Tracer tracer;
+
+    public Telemetry(MeterRegistry meterRegistry, OpenTelemetry openTelemetry) {
+        this.meterRegistry = meterRegistry;
+        this.tracer = openTelemetry.getTracer(INSTRUMENTATION_NAME);
+    }
+
+    //  for code built outside the container, such as tests and benchmarks
+    public static Telemetry noop() {
+        return new Telemetry(new SimpleMeterRegistry(), OpenTelemetry.noop());
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    public <T, E extends Throwable> T observe(String name, Tags tags, ThrowingSupplier<T, E> work) throws E {
+        Span span = tracer.spanBuilder(name).startSpan();
+        for (Tag tag : tags) {
+            span.setAttribute(tag.getKey(), tag.getValue());
+        }
+        long start = System.nanoTime();
+        String exception = NO_EXCEPTION;
+        try (Scope ignored = span.makeCurrent()) {
+            return work.get();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            timer(name, tags.and(EXCEPTION_TAG, exception)).record(System.nanoTime() - start, NANOSECONDS);
+            span.end();
+        }
+    }
+
+    public <E extends Throwable> void run(String name, Tags tags, ThrowingRunnable<E> work) throws E {
+        observe(name, tags, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    //  the registry hands back the existing timer for a known name and tags, so this is a lookup after the first call
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name).tags(tags).publishPercentileHistogram().register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T, E extends Throwable> {
+        T get() throws E;
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable<E extends Throwable> {
+        void run() throws E;
+    }
+}
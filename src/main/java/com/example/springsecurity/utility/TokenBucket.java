@@ -0,0 +1,35 @@
+package com.example.springsecurity.utility;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//  token bucket kept as a single "theoretical arrival time" (GCRA), so taking a token is one CAS on one long
+public class TokenBucket {
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long tokensPerMinute, long burst, long nowNanos) {
+        this.nanosPerToken = 60_000_000_000L / Math.max(1, tokensPerMinute);
+        this.burstNanos = nanosPerToken * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    public boolean tryConsume(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, nowNanos) + nanosPerToken;
+            if (next - nowNanos > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return true;
+            }
+        }
+    }
+
+    //  seconds until the next token is available, used for the Retry-After header
+    public long secondsUntilNextToken(long nowNanos) {
+        long wait = theoreticalArrival.get() + nanosPerToken - burstNanos - nowNanos;
+        return Math.max(1, (wait + 999_999_999L) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.springsecurity.utility;
+
+import com.example.springsecurity.domain.UserSummary;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static com.example.springsecurity.constants.PaginationConstant.USER_EXPORT_HEADER;
+
+//  writes users in the csv layout UserImportReader reads back. fields with a comma, quote or line break are quoted,
+//  and text starting like a spreadsheet formula gets a leading ' so opening the export can not run it
+public class UserExportWriter {
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private Writer writer;
+
+    public UserExportWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void writeHeader() throws IOException {
+        writer.write(USER_EXPORT_HEADER);
+    }
+
+    public void write(UserSummary user) throws IOException {
+        writer.write(csvLine(user.getId(), user.getUserId(), user.getFirstname(), user.getLastname(),
+                user.getUsername(), user.getEmail(), user.getRole(), user.isActive(), user.isNotLocked(),
+                user.getJoinDate() == null ? null : user.getJoinDate().toInstant(),
+                user.getLastLoginDate() == null ? null : user.getLastLoginDate().toInstant()));
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    static String csvLine(Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append(field(values[i]));
+        }
+        return line.append('\n').toString();
+    }
+
+    private static String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    //  undoes the formula guard, used by the reader so an export imports back unchanged
+    static String unguard(String value) {
+        if (value != null && value.length() > 1 && value.charAt(0) == '\'' && FORMULA_PREFIXES.indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.springsecurity.utility;
+
+import com.example.springsecurity.domain.UserImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+//  reads import rows one line at a time, so an import of any size holds only the current line.
+//  csv needs a header naming the columns; quoted fields may contain commas and "" but not line breaks
+public class UserImportReader implements Iterator<UserImportRow> {
+    private BufferedReader reader;
+    private boolean csv;
+    private ObjectMapper objectMapper;
+    private List<String> header;
+    private long line;
+    private UserImportRow next;
+
+    public UserImportReader(BufferedReader reader, boolean csv, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.csv = csv;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readRow();
+        }
+        return next != null;
+    }
+
+    @Override
+    public UserImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        UserImportRow row = next;
+        next = null;
+        return row;
+    }
+
+    private UserImportRow readRow() {
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.trim().isEmpty()) {
+                    continue;
+                }
+                if (!csv) {
+                    return withLine(readJson(text));
+                }
+                if (header == null) {
+                    header = new ArrayList<>();
+                    for (String column : parseCsvLine(text)) {
+                        header.add(column.trim().toLowerCase(Locale.ROOT));
+                    }
+                    continue;
+                }
+                return withLine(toRow(parseCsvLine(text)));
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private UserImportRow readJson(String text) {
+        try {
+            return objectMapper.readValue(text, UserImportRow.class);
+        } catch (JsonProcessingException e) {
+            UserImportRow row = new UserImportRow();
+            row.setParseError(e.getOriginalMessage());
+            return row;
+        }
+    }
+
+    private UserImportRow withLine(UserImportRow row) {
+        row.setLine(line);
+        return row;
+    }
+
+    private UserImportRow toRow(List<String> values) {
+        Map<String, String> columns = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            columns.put(header.get(i), UserExportWriter.unguard(values.get(i).trim()));
+        }
+        UserImportRow row = new UserImportRow();
+        row.setFirstname(columns.get("firstname"));
+        row.setLastname(columns.get("lastname"));
+        row.setUsername(columns.get("username"));
+        row.setEmail(columns.get("email"));
+        row.setRole(columns.get("role"));
+        row.setIsActive(columns.get("isactive"));
+        row.setIsNonLocked(columns.get("isnonlocked"));
+        return row;
+    }
+
+    static List<String> parseCsvLine(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
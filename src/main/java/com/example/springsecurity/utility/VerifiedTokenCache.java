@@ -0,0 +1,65 @@
+package com.example.springsecurity.utility;
+
+import com.example.springsecurity.domain.VerifiedToken;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.example.springsecurity.constants.SecurityConstant.EXPIRATION_TIME;
+import static com.example.springsecurity.constants.SecurityConstant.VERIFIED_TOKEN_CACHE_MAX_SIZE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+//  keeps tokens whose signature was already checked, keyed by a sha-256 digest so the raw token is never held
+public class VerifiedTokenCache {
+
+    private Cache<String, VerifiedToken> verifiedTokenCache;
+
+    public VerifiedTokenCache() {
+        this(VERIFIED_TOKEN_CACHE_MAX_SIZE);
+    }
+
+    public VerifiedTokenCache(long maximumSize) {
+        //  no token lives longer than EXPIRATION_TIME, the exact expiry of each entry is checked on read
+        this.verifiedTokenCache = CacheBuilder.newBuilder().expireAfterWrite(EXPIRATION_TIME, MILLISECONDS)
+                .maximumSize(maximumSize).recordStats().build();
+    }
+
+    public VerifiedToken get(String token) {
+        String key = digest(token);
+        VerifiedToken verifiedToken = verifiedTokenCache.getIfPresent(key);
+        if (verifiedToken != null && !verifiedToken.isNotExpired()) {
+            verifiedTokenCache.invalidate(key);
+            return null;
+        }
+        return verifiedToken;
+    }
+
+    public void put(String token, VerifiedToken verifiedToken) {
+        if (verifiedToken.isNotExpired()) {
+            verifiedTokenCache.put(digest(token), verifiedToken);
+        }
+    }
+
+    public long hitCount() {
+        return verifiedTokenCache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return verifiedTokenCache.stats().missCount();
+    }
+
+    public CacheStats stats() {
+        return verifiedTokenCache.stats();
+    }
+
+    public long size() {
+        return verifiedTokenCache.size();
+    }
+
+    private String digest(String token) {
+        return Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.springsecurity.utility;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//  the project still compiles for java 11, so the virtual thread factory is looked up at runtime
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return factoryMethod().isPresent();
+    }
+
+    public static Optional<ExecutorService> newPerTaskExecutor() {
+        return factoryMethod().map(method -> {
+            try {
+                return (ExecutorService) method.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create a virtual thread executor", e);
+            }
+        });
+    }
+
+    private static Optional<Method> factoryMethod() {
+        try {
+            return Optional.of(Executors.class.getMethod("newVirtualThreadPerTaskExecutor"));
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+}
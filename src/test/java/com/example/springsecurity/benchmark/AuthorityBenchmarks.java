@@ -0,0 +1,39 @@
+package com.example.springsecurity.benchmark;
+
+import com.example.springsecurity.utility.AuthorityInterner;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.example.springsecurity.constants.Authority.SUPER_ADMIN_AUTHORITIES;
+import static java.util.Arrays.stream;
+
+//  the old per-request mapping of claims to authorities against the interned lookup, compare gc.alloc.rate.norm
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorityBenchmarks {
+    private String[] claims;
+
+    @Setup
+    public void setUp() {
+        claims = SUPER_ADMIN_AUTHORITIES.clone();
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> streaming() {
+        return stream(claims).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> interned() {
+        return AuthorityInterner.intern(claims);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.springsecurity.benchmark;
+
+import com.example.springsecurity.domain.UserPrincipal;
+import com.example.springsecurity.model.user.User;
+import com.example.springsecurity.utility.JWTTokenProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static com.example.springsecurity.enumeration.Role.ROLE_SUPER_USER;
+
+final class BenchmarkFixtures {
+    static final String SECRET = "benchmark-secret-benchmark-secret";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JWTTokenProvider tokenProvider() {
+        JWTTokenProvider tokenProvider = new JWTTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secret", SECRET);
+        tokenProvider.init();
+        return tokenProvider;
+    }
+
+    static UserPrincipal principal(String username) {
+        Date now = new Date();
+        return new UserPrincipal(new User(1L, "1234567890", "John", "Doe", username,
+                "$2a$10$abcdefghijklmnopqrstuu8wUZIqsBo2V0yJ3O0pLgSS/z1WS.Xm", username + "@example.com",
+                null, now, now, now, ROLE_SUPER_USER.name(), true, true, null));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.springsecurity.benchmark;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.springsecurity.constants.UserImplConstants.*;
+
+//  bulk user creation through hibernate on an embedded H2 database: IDENTITY ids without batching, as the user
+//  entity used to be mapped, against pooled sequence ids with jdbc batching as in the production profile.
+//  an embedded database has no network round trips, so against MySQL the gap is wider than what this shows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkUserInsertBenchmarks {
+    private static final int USERS_PER_TRANSACTION = 1000;
+    private static final AtomicLong DATABASES = new AtomicLong();
+
+    @Param({"identity", "sequence-batched"})
+    public String strategy;
+
+    private SessionFactory sessionFactory;
+    private long next;
+
+    @Setup
+    public void setUp() {
+        boolean batched = strategy.equals("sequence-batched");
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(batched ? SequenceUserRow.class : IdentityUserRow.class);
+        //  returns void, so it can not be part of the chain
+        configuration.setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy());
+        sessionFactory = configuration
+                .setProperty(AvailableSettings.URL, "jdbc:h2:mem:users" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, batched ? "50" : "0")
+                .setProperty(AvailableSettings.ORDER_INSERTS, String.valueOf(batched))
+                .buildSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS_PER_TRANSACTION)
+    public void createUsers() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            for (int i = 0; i < USERS_PER_TRANSACTION; i++) {
+                long n = next++;
+                session.persist(strategy.equals("sequence-batched") ? new SequenceUserRow(n) : new IdentityUserRow(n));
+            }
+            transaction.commit();
+        }
+    }
+
+    @Entity
+    @Table(name = "identity_user")
+    public static class IdentityUserRow extends UserRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        public IdentityUserRow() {
+        }
+
+        IdentityUserRow(long n) {
+            super(n);
+        }
+    }
+
+    @Entity
+    @Table(name = "sequence_user")
+    public static class SequenceUserRow extends UserRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = USER_ID_GENERATOR)
+        @SequenceGenerator(name = USER_ID_GENERATOR, sequenceName = USER_ID_SEQUENCE, allocationSize = USER_ID_ALLOCATION_SIZE)
+        private Long id;
+
+        public SequenceUserRow() {
+        }
+
+        SequenceUserRow(long n) {
+            super(n);
+        }
+    }
+
+    //  the columns of the user table that a new account fills in
+    @MappedSuperclass
+    public abstract static class UserRow {
+        private String userId;
+        private String firstname;
+        private String lastname;
+        private String username;
+        private String password;
+        private String email;
+        private Date joinDate;
+        private String role;
+        private boolean isActive;
+        private boolean isNotLocked;
+
+        protected UserRow() {
+        }
+
+        protected UserRow(long n) {
+            this.userId = String.valueOf(1000000000L + n);
+            this.firstname = "First" + n;
+            this.lastname = "Last" + n;
+            this.username = "user" + n;
+            this.password = "$2a$10$abcdefghijklmnopqrstuu8wUZIqsBo2V0yJ3O0pLgSS/z1WS.Xm";
+            this.email = "user" + n + "@example.com";
+            this.joinDate = new Date();
+            this.role = "ROLE_USER";
+            this.isActive = true;
+            this.isNotLocked = true;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.springsecurity.benchmark;
+
+import com.example.springsecurity.domain.UserPrincipal;
+import com.example.springsecurity.filter.JwtAuthorizationFilter;
+import com.example.springsecurity.utility.JWTTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.springsecurity.constants.SecurityConstant.TOKEN_PREFIX;
+import static com.example.springsecurity.constants.SecurityConstant.VERIFIED_TOKEN_CACHE_MAX_SIZE;
+
+//  token generation and the authorization filter, with the verified token cache hit and missed
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmarks {
+    //  more distinct tokens than the cache holds, so cycling through them always misses
+    private static final int UNCACHED_TOKENS = (int) VERIFIED_TOKEN_CACHE_MAX_SIZE * 2;
+
+    private JWTTokenProvider tokenProvider;
+    private JwtAuthorizationFilter filter;
+    private UserPrincipal principal;
+    private String cachedToken;
+    private String[] uncachedTokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = BenchmarkFixtures.tokenProvider();
+        filter = new JwtAuthorizationFilter(tokenProvider);
+        principal = BenchmarkFixtures.principal("jdoe");
+        cachedToken = tokenProvider.generateJwtToken(principal);
+        uncachedTokens = new String[UNCACHED_TOKENS];
+        for (int i = 0; i < UNCACHED_TOKENS; i++) {
+            uncachedTokens[i] = tokenProvider.generateJwtToken(BenchmarkFixtures.principal("user" + i));
+        }
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return tokenProvider.generateJwtToken(principal);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterWithCachedToken() throws ServletException, IOException {
+        return filter(cachedToken);
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filterWithUncachedToken() throws ServletException, IOException {
+        String token = uncachedTokens[next];
+        next = (next + 1) % UNCACHED_TOKENS;
+        return filter(token);
+    }
+
+    private MockHttpServletResponse filter(String token) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/list");
+        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.springsecurity.benchmark;
+
+import com.example.springsecurity.service.impl.LocalLoginAttemptStore;
+import com.example.springsecurity.service.impl.LoginAttemptServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//  eight threads hitting a small set of usernames, so failures and checks contend on the same windows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class LoginAttemptBenchmarks {
+    private static final int USERNAMES = 16;
+
+    private LocalLoginAttemptStore store;
+    private LoginAttemptServiceImpl loginAttemptService;
+    private String[] usernames;
+
+    @Setup
+    public void setUp() {
+        store = new LocalLoginAttemptStore();
+        loginAttemptService = new LoginAttemptServiceImpl(store);
+        usernames = new String[USERNAMES];
+        for (int i = 0; i < USERNAMES; i++) {
+            usernames[i] = "user" + i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.shutdown();
+    }
+
+    @Benchmark
+    public void recordFailure() {
+        loginAttemptService.addUserToLoginAttemptCache(randomUsername());
+    }
+
+    @Benchmark
+    public boolean hasExceededLoginAttempts() {
+        return loginAttemptService.hasExceededLoginAttempts(randomUsername());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedRecordFailure() {
+        loginAttemptService.addUserToLoginAttemptCache(randomUsername());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public boolean mixedHasExceeded() {
+        return loginAttemptService.hasExceededLoginAttempts(randomUsername());
+    }
+
+    private String randomUsername() {
+        return usernames[ThreadLocalRandom.current().nextInt(USERNAMES)];
+    }
+}
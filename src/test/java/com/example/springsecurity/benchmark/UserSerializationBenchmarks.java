@@ -0,0 +1,39 @@
+package com.example.springsecurity.benchmark;
+
+import com.example.springsecurity.domain.UserSummary;
+import com.example.springsecurity.model.user.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+//  one row of the user list serialized as the entity and as the summary projection, compare gc.alloc.rate.norm
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSerializationBenchmarks {
+    private ObjectMapper objectMapper;
+    private User user;
+    private UserSummary summary;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        user = BenchmarkFixtures.principal("jdoe").getUser();
+        summary = UserSummary.from(user);
+    }
+
+    @Benchmark
+    public byte[] entity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] summary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summary);
+    }
+}
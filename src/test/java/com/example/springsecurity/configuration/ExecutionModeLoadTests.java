@@ -0,0 +1,120 @@
+package com.example.springsecurity.configuration;
+
+import com.example.springsecurity.enumeration.ExecutionMode;
+import com.example.springsecurity.utility.VirtualThreads;
+import org.junit.jupiter.api.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+//  a few tomcat workers against many concurrent slow requests: in blocking mode the workers are the limit,
+//  in async and virtual mode the slow part runs elsewhere and the requests overlap.
+//  run with: mvn test -P load-tests
+@Tag("load")
+class ExecutionModeLoadTests {
+    private static final int TOMCAT_THREADS = 8;
+    private static final int CONCURRENT_REQUESTS = 200;
+    private static final long HANDLER_MILLIS = 100;
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    @Test
+    void asyncModeOutlastsTheTomcatPool() throws Exception {
+        long blocking = timeConcurrentRequests(ExecutionMode.BLOCKING);
+        long async = timeConcurrentRequests(ExecutionMode.ASYNC);
+        LOGGER.info("{} slow requests on {} workers: blocking {} ms, async {} ms",
+                CONCURRENT_REQUESTS, TOMCAT_THREADS, blocking, async);
+
+        //  blocking needs CONCURRENT_REQUESTS / TOMCAT_THREADS rounds of HANDLER_MILLIS, async about one
+        assertTrue(blocking >= CONCURRENT_REQUESTS / TOMCAT_THREADS * HANDLER_MILLIS,
+                () -> "blocking took only " + blocking + " ms");
+        assertTrue(async * 3 < blocking, () -> "async " + async + " ms is not a third of blocking " + blocking + " ms");
+    }
+
+    @Test
+    void virtualModeOutlastsTheTomcatPool() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "needs a JDK with virtual threads");
+        long blocking = timeConcurrentRequests(ExecutionMode.BLOCKING);
+        long virtual = timeConcurrentRequests(ExecutionMode.VIRTUAL);
+        LOGGER.info("{} slow requests on {} workers: blocking {} ms, virtual {} ms",
+                CONCURRENT_REQUESTS, TOMCAT_THREADS, blocking, virtual);
+
+        assertTrue(virtual * 3 < blocking, () -> "virtual " + virtual + " ms is not a third of blocking " + blocking + " ms");
+    }
+
+    private long timeConcurrentRequests(ExecutionMode mode) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LoadTestApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0",
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "server.tomcat.threads.min-spare=" + TOMCAT_THREADS,
+                        "app.execution.mode=" + mode.name(),
+                        "app.execution.async-max-pool-size=" + CONCURRENT_REQUESTS,
+                        "app.execution.async-core-pool-size=" + CONCURRENT_REQUESTS)
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(10)).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/slow")).build();
+            //  one warm-up round so class loading and pool start-up are not part of the measurement
+            client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            long start = System.nanoTime();
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : responses) {
+                assertEquals(200, response.get().statusCode());
+            }
+            return (System.nanoTime() - start) / 1_000_000;
+        }
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class})
+    @EnableConfigurationProperties
+    @Import({ExecutionProperties.class, ExecutionConfiguration.class, SlowResource.class})
+    static class LoadTestApplication {
+    }
+
+    //  stands in for a handler waiting on jdbc or smtp
+    @RestController
+    static class SlowResource {
+        @GetMapping("/slow")
+        public Callable<String> slow() {
+            return () -> {
+                Thread.sleep(HANDLER_MILLIS);
+                return "done";
+            };
+        }
+    }
+}
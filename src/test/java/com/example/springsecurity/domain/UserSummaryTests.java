@@ -0,0 +1,50 @@
+package com.example.springsecurity.domain;
+
+import com.example.springsecurity.model.user.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static com.example.springsecurity.enumeration.Role.ROLE_HR;
+import static org.junit.jupiter.api.Assertions.*;
+
+//  bytes written and allocated per row against the entity are measured by UserSerializationBenchmarks
+class UserSummaryTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void summaryDoesNotExposePasswordOrAuthorities() throws JsonProcessingException {
+        String json = objectMapper.writeValueAsString(UserSummary.from(sampleUser()));
+        assertFalse(json.contains("password"));
+        assertFalse(json.contains("authorities"));
+    }
+
+    @Test
+    void summaryCopiesEveryDisplayedColumn() {
+        User user = sampleUser();
+        UserSummary summary = UserSummary.from(user);
+        assertEquals(user.getId(), summary.getId());
+        assertEquals(user.getUserId(), summary.getUserId());
+        assertEquals(user.getFirstname(), summary.getFirstname());
+        assertEquals(user.getLastname(), summary.getLastname());
+        assertEquals(user.getUsername(), summary.getUsername());
+        assertEquals(user.getEmail(), summary.getEmail());
+        assertEquals(user.getProfileImageUrl(), summary.getProfileImageUrl());
+        assertEquals(user.getLastLoginDate(), summary.getLastLoginDate());
+        assertEquals(user.getLastLoginDateDisplay(), summary.getLastLoginDateDisplay());
+        assertEquals(user.getJoinDate(), summary.getJoinDate());
+        assertEquals(user.getRole(), summary.getRole());
+        assertEquals(user.isActive(), summary.isActive());
+        assertEquals(user.isNotLocked(), summary.isNotLocked());
+    }
+
+    //  each field gets its own value, so a swapped pair of arguments in from() shows up above
+    private User sampleUser() {
+        return new User(7L, "1234567890", "John", "Doe", "jdoe",
+                "$2a$10$abcdefghijklmnopqrstuu8wUZIqsBo2V0yJ3O0pLgSS/z1WS.Xm", "jdoe@example.com",
+                "http://localhost:8080/user/image/profile/jdoe", new Date(3000), new Date(2000), new Date(1000),
+                ROLE_HR.name(), true, false, null);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.springsecurity.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedBodyHttpServletRequestTests {
+
+    @Test
+    void bodyWithinTheLimitIsReplayedWhole() throws IOException {
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(withBody("{\"username\":\"jdoe\"}"), 19);
+
+        assertTrue(request.isComplete());
+        assertEquals("{\"username\":\"jdoe\"}", new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void bodyOverTheLimitIsReportedNotCut() throws IOException {
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(withBody("{\"username\":\"jdoe\"}"), 18);
+
+        assertFalse(request.isComplete());
+        assertEquals(18, request.getBody().length);
+    }
+
+    @Test
+    void readListenerIsToldTheBodyIsComplete() throws IOException {
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(withBody("{}"), 16);
+        ServletInputStream inputStream = request.getInputStream();
+        List<String> events = new ArrayList<>();
+
+        inputStream.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("available:" + new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                events.add("error");
+            }
+        });
+
+        assertEquals(List.of("available:{}", "done"), events);
+        assertTrue(inputStream.isFinished());
+    }
+
+    private MockHttpServletRequest withBody(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/user/login");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
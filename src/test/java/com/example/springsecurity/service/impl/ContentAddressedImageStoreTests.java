@@ -0,0 +1,129 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.exception.domain.ImageTooLargeException;
+import com.example.springsecurity.exception.domain.UnsupportedImageTypeException;
+import com.example.springsecurity.repository.ImageBlobRepository;
+import com.example.springsecurity.service.facade.ImageVariantService;
+import com.google.common.io.CountingInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Date;
+import java.util.stream.Stream;
+
+import static com.example.springsecurity.constants.FileConstant.MAX_IMAGE_UPLOAD_BYTES;
+import static com.example.springsecurity.constants.FileConstant.UPLOAD_BUFFER_BYTES;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ContentAddressedImageStoreTests {
+    private final ImageBlobRepository imageBlobRepository = mock(ImageBlobRepository.class);
+    private final ImageVariantService imageVariantService = mock(ImageVariantService.class);
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void identicalUploadsShareOneFile() throws IOException {
+        ContentAddressedImageStore store = new ContentAddressedImageStore(imageBlobRepository, imageVariantService, folder);
+
+        String first = store.store(new ByteArrayInputStream(bytes("same picture")));
+        String second = store.store(new ByteArrayInputStream(bytes("same picture")));
+
+        assertEquals(first, second);
+        assertEquals(64, first.length());
+        assertArrayEquals(bytes("same picture"), Files.readAllBytes(store.resolve(first)));
+        verify(imageVariantService, times(1)).generateVariantsAsync(store.resolve(first));
+        verify(imageBlobRepository, times(2)).registerStored(eq(first), any(Date.class));
+        try (Stream<Path> files = Files.walk(folder)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void collectsOnlyBlobsWhoseRowWasDeleted() throws IOException {
+        ContentAddressedImageStore store = new ContentAddressedImageStore(imageBlobRepository, imageVariantService, folder);
+        String hash = store.store(new ByteArrayInputStream(bytes("old picture")));
+        when(imageVariantService.resolveVariant(any(Path.class), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(imageBlobRepository.findUnreferencedBefore(any(Date.class))).thenReturn(Collections.singletonList(hash));
+
+        when(imageBlobRepository.deleteIfUnreferenced(eq(hash), any(Date.class))).thenReturn(0);
+        assertEquals(0, store.collectGarbage());
+        assertTrue(Files.exists(store.resolve(hash)));
+
+        when(imageBlobRepository.deleteIfUnreferenced(eq(hash), any(Date.class))).thenReturn(1);
+        assertEquals(1, store.collectGarbage());
+        assertFalse(Files.exists(store.resolve(hash)));
+    }
+
+    @Test
+    void uploadDuringCollectionKeepsItsFile() throws IOException {
+        ContentAddressedImageStore store = new ContentAddressedImageStore(imageBlobRepository, imageVariantService, folder);
+        String hash = store.store(new ByteArrayInputStream(bytes("old picture")));
+        when(imageVariantService.resolveVariant(any(Path.class), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(imageBlobRepository.findUnreferencedBefore(any(Date.class))).thenReturn(Collections.singletonList(hash));
+        //  the row is deleted, then the same picture is uploaded again before the collection removes the files
+        when(imageBlobRepository.deleteIfUnreferenced(eq(hash), any(Date.class))).thenAnswer(invocation -> {
+            store.store(new ByteArrayInputStream(bytes("old picture")));
+            return 1;
+        });
+
+        assertEquals(1, store.collectGarbage());
+        assertArrayEquals(bytes("old picture"), Files.readAllBytes(store.resolve(hash)));
+        try (Stream<Path> files = Files.walk(folder)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void rejectsContentThatIsNotAnImage() {
+        ContentAddressedImageStore store = new ContentAddressedImageStore(imageBlobRepository, imageVariantService, folder);
+
+        assertThrows(UnsupportedImageTypeException.class,
+                () -> store.store(new ByteArrayInputStream("<html>".getBytes(StandardCharsets.UTF_8))));
+        verifyNoInteractions(imageBlobRepository);
+    }
+
+    @Test
+    void stopsReadingOnceTheLimitIsPassed() throws IOException {
+        ContentAddressedImageStore store = new ContentAddressedImageStore(imageBlobRepository, imageVariantService, folder);
+        CountingInputStream upload = new CountingInputStream(endlessJpeg());
+
+        assertThrows(ImageTooLargeException.class, () -> store.store(upload));
+        assertTrue(upload.getCount() <= MAX_IMAGE_UPLOAD_BYTES + UPLOAD_BUFFER_BYTES);
+        try (Stream<Path> files = Files.walk(folder)) {
+            assertEquals(0, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    //  a JPEG header so uploads pass the type check
+    private static byte[] bytes(String content) {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        byte[] jpeg = new byte[body.length + 3];
+        jpeg[0] = (byte) 0xFF;
+        jpeg[1] = (byte) 0xD8;
+        jpeg[2] = (byte) 0xFF;
+        System.arraycopy(body, 0, jpeg, 3, body.length);
+        return jpeg;
+    }
+
+    private static InputStream endlessJpeg() {
+        return new InputStream() {
+            private long position;
+
+            @Override
+            public int read() {
+                return position++ == 0 ? 0xFF : position == 2 ? 0xD8 : 0xFF;
+            }
+        };
+    }
+}
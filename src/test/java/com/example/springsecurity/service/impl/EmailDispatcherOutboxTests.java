@@ -0,0 +1,108 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.configuration.EmailProperties;
+import com.example.springsecurity.model.email.OutboundEmail;
+import com.example.springsecurity.repository.OutboundEmailRepository;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.example.springsecurity.model.email.OutboundEmail.Status.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// two dispatchers, standing in for two nodes, drain one outbox table on H2 and every message goes out once
+class EmailDispatcherOutboxTests {
+    private static final int MESSAGES = 40;
+
+    private GreenMail greenMail;
+    private ConfigurableApplicationContext context;
+    private OutboundEmailRepository repository;
+    private EmailProperties emailProperties;
+
+    @BeforeEach
+    void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        context = new SpringApplicationBuilder(OutboxTestApplication.class)
+                .web(WebApplicationType.NONE)
+                // arguments rather than default properties, so they win over the MySQL settings in application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect");
+        repository = context.getBean(OutboundEmailRepository.class);
+        emailProperties = new EmailProperties();
+        emailProperties.setProtocol("smtp");
+        emailProperties.setHost("localhost");
+        emailProperties.setPort(ServerSetupTest.SMTP.getPort());
+        emailProperties.setAuth(false);
+        emailProperties.setStartTls(false);
+        emailProperties.setBatchSize(MESSAGES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+        greenMail.stop();
+    }
+
+    @Test
+    void twoDispatchersSendEachMessageOnce() throws Exception {
+        Date due = new Date(System.currentTimeMillis() - 1000);
+        for (int i = 0; i < MESSAGES; i++) {
+            repository.save(new OutboundEmail(null, "user" + i + "@example.com", "subject", "body", PENDING, 0, due, due, null));
+        }
+        EmailDispatcher first = new EmailDispatcher(repository, emailProperties);
+        EmailDispatcher second = new EmailDispatcher(repository, emailProperties);
+        ExecutorService nodes = Executors.newFixedThreadPool(2);
+        try {
+            List<Callable<Integer>> batches = new ArrayList<>();
+            batches.add(first::dispatchBatch);
+            batches.add(second::dispatchBatch);
+            int sent = 0;
+            for (Future<Integer> batch : nodes.invokeAll(batches)) {
+                sent += batch.get();
+            }
+
+            assertEquals(MESSAGES, sent);
+            assertEquals(MESSAGES, greenMail.getReceivedMessages().length);
+            assertEquals(0, repository.count());
+        } finally {
+            nodes.shutdown();
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+            TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = OutboundEmail.class)
+    @EnableJpaRepositories(basePackageClasses = OutboundEmailRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = OutboundEmailRepository.class))
+    static class OutboxTestApplication {
+    }
+}
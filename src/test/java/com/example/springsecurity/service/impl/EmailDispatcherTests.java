@@ -0,0 +1,111 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.configuration.EmailProperties;
+import com.example.springsecurity.model.email.OutboundEmail;
+import com.example.springsecurity.repository.OutboundEmailRepository;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.example.springsecurity.model.email.OutboundEmail.Status.FAILED;
+import static com.example.springsecurity.model.email.OutboundEmail.Status.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+//  runs the dispatcher against greenmail, an in-process smtp server
+class EmailDispatcherTests {
+    private GreenMail greenMail;
+    private OutboundEmailRepository repository;
+    private EmailProperties emailProperties;
+
+    @BeforeEach
+    void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.start();
+        repository = mock(OutboundEmailRepository.class);
+        when(repository.claim(any(), any(), any(), any())).thenReturn(1);
+        emailProperties = new EmailProperties();
+        emailProperties.setProtocol("smtp");
+        emailProperties.setHost("localhost");
+        emailProperties.setPort(ServerSetupTest.SMTP.getPort());
+        emailProperties.setAuth(false);
+        emailProperties.setStartTls(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        greenMail.stop();
+    }
+
+    @Test
+    void sendsTheWholeBatchOverOneConnectionAndDeletesSentRows() {
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(PENDING), any(), any()))
+                .thenReturn(List.of(email(1L, "a@example.com"), email(2L, "b@example.com")));
+        EmailDispatcher dispatcher = new EmailDispatcher(repository, emailProperties);
+
+        assertEquals(2, dispatcher.dispatchBatch());
+        dispatcher.shutdown();
+
+        assertEquals(2, greenMail.getReceivedMessages().length);
+        verify(repository, times(2)).delete(any(OutboundEmail.class));
+    }
+
+    @Test
+    void failedSendIsRescheduledWithBackoff() {
+        greenMail.stop();
+        OutboundEmail outboundEmail = email(1L, "a@example.com");
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(PENDING), any(), any()))
+                .thenReturn(List.of(outboundEmail));
+        EmailDispatcher dispatcher = new EmailDispatcher(repository, emailProperties);
+
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        assertEquals(1, outboundEmail.getAttempts());
+        assertEquals(PENDING, outboundEmail.getStatus());
+        verify(repository).save(outboundEmail);
+        verify(repository, never()).delete(any(OutboundEmail.class));
+    }
+
+    @Test
+    void lastFailedAttemptDropsTheBody() {
+        greenMail.stop();
+        emailProperties.setMaxAttempts(1);
+        OutboundEmail outboundEmail = email(1L, "a@example.com");
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(PENDING), any(), any()))
+                .thenReturn(List.of(outboundEmail));
+        EmailDispatcher dispatcher = new EmailDispatcher(repository, emailProperties);
+
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        assertEquals(FAILED, outboundEmail.getStatus());
+        assertNull(outboundEmail.getBody());
+        verify(repository).save(outboundEmail);
+    }
+
+    @Test
+    void rowClaimedByAnotherNodeIsSkipped() {
+        when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(PENDING), any(), any()))
+                .thenReturn(List.of(email(1L, "a@example.com")));
+        when(repository.claim(any(), any(), any(), any())).thenReturn(0);
+        EmailDispatcher dispatcher = new EmailDispatcher(repository, emailProperties);
+
+        assertEquals(0, dispatcher.dispatchBatch());
+        dispatcher.shutdown();
+
+        assertEquals(0, greenMail.getReceivedMessages().length);
+        verify(repository, never()).delete(any(OutboundEmail.class));
+    }
+
+    private OutboundEmail email(Long id, String recipient) {
+        Date now = new Date();
+        return new OutboundEmail(id, recipient, "subject", "body", PENDING, 0, now, now, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.domain.Avatar;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class IdenticonAvatarServiceTests {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void sameUsernameGivesSameAvatarFromDisk() throws IOException {
+        Avatar first = new IdenticonAvatarService(folder).getPlaceholderAvatar("jdoe");
+        Avatar second = new IdenticonAvatarService(folder).getPlaceholderAvatar("jdoe");
+        assertEquals(first.getContentHash(), second.getContentHash());
+        try (Stream<Path> files = Files.list(folder)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void differentUsernamesGiveDifferentAvatars() {
+        IdenticonAvatarService avatarService = new IdenticonAvatarService(folder);
+        assertNotEquals(avatarService.getPlaceholderAvatar("jdoe").getContentHash(),
+                avatarService.getPlaceholderAvatar("asmith").getContentHash());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.springsecurity.service.impl;
+
+import com.example.springsecurity.enumeration.ImageSize;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ImageVariantServiceImplTests {
+    private final ImageVariantServiceImpl imageVariantService = new ImageVariantServiceImpl();
+
+    @TempDir
+    Path folder;
+
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void createsVariantsThatFitTheirSize() throws IOException {
+        Path original = folder.resolve("jdoe.jpg");
+        ImageIO.write(new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB), "jpg", original.toFile());
+
+        imageVariantService.generateVariants(original);
+
+        Path thumbnail = imageVariantService.resolveVariant(original, ImageSize.THUMBNAIL);
+        assertNotEquals(original, thumbnail);
+        BufferedImage image = ImageIO.read(thumbnail.toFile());
+        assertEquals(64, image.getWidth());
+        assertEquals(43, image.getHeight());
+    }
+
+    @Test
+    void fallsBackToOriginalUntilVariantsExist() {
+        Path original = folder.resolve("jdoe.jpg");
+        assertEquals(original, imageVariantService.resolveVariant(original, ImageSize.MEDIUM));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.springsecurity.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static com.example.springsecurity.constants.SecurityConstant.LOGIN_ATTEMPT_BUCKETS;
+import static com.example.springsecurity.constants.SecurityConstant.LOGIN_ATTEMPT_BUCKET_MS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.spy;
+
+//  runs the store's sql on H2 in MySQL mode, which understands the on duplicate key update upsert
+class JdbcLoginAttemptStoreTests {
+    private static final long WINDOW_MS = LOGIN_ATTEMPT_BUCKETS * LOGIN_ATTEMPT_BUCKET_MS;
+    private JdbcTemplate jdbcTemplate;
+    private JdbcLoginAttemptStore store;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = spy(new JdbcTemplate(dataSource));
+        jdbcTemplate.execute("create table login_attempt_bucket (bucket_key varchar(255) primary key, "
+                + "username varchar(255), bucket_id bigint not null, attempts bigint not null)");
+        store = new JdbcLoginAttemptStore(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void failuresInOneBucketShareARow() {
+        long now = 10 * WINDOW_MS;
+        store.recordFailure("victim", now);
+        store.recordFailure("victim", now + 1);
+        store.recordFailure("victim", now + 2);
+        assertEquals(3, store.countFailures("victim", now + 2));
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from login_attempt_bucket", Long.class));
+    }
+
+    @Test
+    void failuresLeaveTheWindowAsTimePasses() {
+        long start = 10 * WINDOW_MS;
+        store.recordFailure("victim", start);
+        store.recordFailure("victim", start + LOGIN_ATTEMPT_BUCKET_MS);
+        assertEquals(2, store.countFailures("victim", start + LOGIN_ATTEMPT_BUCKET_MS));
+        assertEquals(1, store.countFailures("victim", start + WINDOW_MS));
+        assertEquals(0, store.countFailures("victim", start + WINDOW_MS + LOGIN_ATTEMPT_BUCKET_MS));
+    }
+
+    @Test
+    void sweepDropsOnlyExpiredBuckets() {
+        long start = 10 * WINDOW_MS;
+        store.recordFailure("old", start);
+        store.recordFailure("victim", start + WINDOW_MS);
+        store.sweep(start + WINDOW_MS);
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from login_attempt_bucket", Long.class));
+        assertEquals(1, store.countFailures("victim", start + WINDOW_MS));
+    }
+
+    @Test
+    void resetClearsTheWindow() {
+        long now = 10 * WINDOW_MS;
+        store.recordFailure("victim", now);
+        store.recordFailure("other", now);
+        store.reset("victim");
+        assertEquals(0, store.countFailures("victim", now));
+        assertEquals(1, store.countFailures("other", now));
+    }
+
+    @Test
+    void resetWithoutFailuresDoesNotWrite() {
+        store.reset("victim");
+        for (Invocation invocation : mockingDetails(jdbcTemplate).getInvocations()) {
+            if (invocation.getMethod().getName().equals("update")) {
+                assertFalse(String.valueOf(invocation.getArgument(0)).startsWith("delete"));
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.springsecurity.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.springsecurity.constants.SecurityConstant.LOGIN_ATTEMPT_BUCKETS;
+import static com.example.springsecurity.constants.SecurityConstant.LOGIN_ATTEMPT_BUCKET_MS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalLoginAttemptStoreTests {
+    private static final long WINDOW_MS = LOGIN_ATTEMPT_BUCKETS * LOGIN_ATTEMPT_BUCKET_MS;
+    private final LocalLoginAttemptStore store = new LocalLoginAttemptStore();
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void failuresLeaveTheWindowAsTimePasses() {
+        long start = 10 * WINDOW_MS;
+        store.recordFailure("victim", start);
+        store.recordFailure("victim", start + LOGIN_ATTEMPT_BUCKET_MS);
+        assertEquals(2, store.countFailures("victim", start + LOGIN_ATTEMPT_BUCKET_MS));
+        assertEquals(1, store.countFailures("victim", start + WINDOW_MS));
+        assertEquals(0, store.countFailures("victim", start + WINDOW_MS + LOGIN_ATTEMPT_BUCKET_MS));
+    }
+
+    @Test
+    void sweepKeepsOnlyActiveUsernames() {
+        long start = 10 * WINDOW_MS;
+        for (int i = 0; i < 10_000; i++) {
+            store.recordFailure("user" + i, start);
+        }
+        store.recordFailure("victim", start + WINDOW_MS);
+        store.sweep(start + WINDOW_MS);
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void concurrentFailuresAreAllCounted() throws InterruptedException {
+        long now = 10 * WINDOW_MS;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8_000; i++) {
+            executor.execute(() -> store.recordFailure("victim", now));
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        assertEquals(8_000, store.countFailures("victim", now));
+    }
+}
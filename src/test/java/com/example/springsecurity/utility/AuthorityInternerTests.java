@@ -0,0 +1,59 @@
+package com.example.springsecurity.utility;
+
+import com.example.springsecurity.enumeration.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+import static com.example.springsecurity.constants.Authority.SUPER_ADMIN_AUTHORITIES;
+import static com.example.springsecurity.constants.Authority.USER_AUTHORITIES;
+import static com.example.springsecurity.enumeration.Role.ROLE_SUPER_USER;
+import static com.example.springsecurity.enumeration.Role.ROLE_USER;
+import static org.junit.jupiter.api.Assertions.*;
+
+//  allocation per lookup is measured by AuthorityBenchmarks with -prof gc
+class AuthorityInternerTests {
+
+    @Test
+    void sameClaimsShareOneList() {
+        String[] claims = SUPER_ADMIN_AUTHORITIES.clone();
+        assertSame(AuthorityInterner.forRole(ROLE_SUPER_USER), AuthorityInterner.intern(claims));
+        assertSame(AuthorityInterner.intern(claims), AuthorityInterner.intern(SUPER_ADMIN_AUTHORITIES.clone()));
+    }
+
+    @Test
+    void internedListHoldsTheClaimsInOrder() {
+        List<GrantedAuthority> authorities = AuthorityInterner.intern(USER_AUTHORITIES.clone());
+        assertEquals(USER_AUTHORITIES.length, authorities.size());
+        for (int i = 0; i < USER_AUTHORITIES.length; i++) {
+            assertEquals(USER_AUTHORITIES[i], authorities.get(i).getAuthority());
+        }
+        assertNotSame(authorities, AuthorityInterner.forRole(ROLE_SUPER_USER));
+    }
+
+    @Test
+    void sharedListsCanNotBeModified() {
+        List<GrantedAuthority> authorities = AuthorityInterner.forRole(ROLE_USER);
+        assertThrows(UnsupportedOperationException.class, () -> authorities.add(new SimpleGrantedAuthority("user:delete")));
+        assertThrows(UnsupportedOperationException.class, authorities::clear);
+    }
+
+    @Test
+    void changingTheClaimsArrayLaterDoesNotChangeTheSharedList() {
+        String[] claims = {"user:read", "custom:claim"};
+        List<GrantedAuthority> authorities = AuthorityInterner.intern(claims);
+        claims[1] = "user:delete";
+        assertEquals("custom:claim", AuthorityInterner.intern(new String[]{"user:read", "custom:claim"}).get(1).getAuthority());
+        assertEquals("custom:claim", authorities.get(1).getAuthority());
+    }
+
+    @Test
+    void unknownRoleGrantsNothing() {
+        assertSame(AuthorityInterner.forRole(ROLE_SUPER_USER), AuthorityInterner.forRole(Role.fromName("ROLE_SUPER_USER")));
+        assertTrue(AuthorityInterner.forRole(Role.fromName("ROLE_UNKNOWN")).isEmpty());
+        assertTrue(AuthorityInterner.forRole(Role.fromName(null)).isEmpty());
+        assertTrue(AuthorityInterner.intern(null).isEmpty());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.springsecurity.utility;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.IMAGE_JPEG_VALUE;
+
+class FileStreamerTests {
+    private static final String CACHE_CONTROL = "public, max-age=60";
+    private final FileStreamer fileStreamer = new FileStreamer();
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void servesWholeFileThenNotModified() throws IOException {
+        Path image = Files.write(folder.resolve("image.jpg"), new byte[]{1, 2, 3, 4, 5});
+        MockHttpServletResponse response = serve(image, new MockHttpServletRequest("GET", "/"));
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, response.getContentAsByteArray());
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/");
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG));
+        MockHttpServletResponse notModified = serve(image, conditional);
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+    }
+
+    @Test
+    void servesRequestedByteRange() throws IOException {
+        Path image = Files.write(folder.resolve("image.jpg"), new byte[]{1, 2, 3, 4, 5});
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=1-3");
+        MockHttpServletResponse response = serve(image, request);
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 1-3/5", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(new byte[]{2, 3, 4}, response.getContentAsByteArray());
+    }
+
+    private MockHttpServletResponse serve(Path image, MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        fileStreamer.serve(image, IMAGE_JPEG_VALUE, CACHE_CONTROL, request, response);
+        return response;
+    }
+}
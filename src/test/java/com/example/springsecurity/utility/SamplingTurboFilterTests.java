@@ -0,0 +1,38 @@
+package com.example.springsecurity.utility;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static com.example.springsecurity.utility.SamplingTurboFilter.SAMPLED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SamplingTurboFilterTests {
+    private final Logger logger = new LoggerContext().getLogger("sampling");
+
+    @Test
+    void keepsOneInRateOfSampledEvents() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRate(10);
+
+        int kept = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (filter.decide(SAMPLED, logger, Level.INFO, "login {}", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        assertEquals(100, kept);
+    }
+
+    @Test
+    void leavesUnmarkedEventsAlone() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRate(1000);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.ERROR, "failure", null, null));
+        }
+    }
+}
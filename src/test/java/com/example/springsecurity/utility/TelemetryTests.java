@@ -0,0 +1,54 @@
+package com.example.springsecurity.utility;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryTests {
+    private final InMemorySpanExporter spanExporter = InMemorySpanExporter.create();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Telemetry telemetry = new Telemetry(meterRegistry, OpenTelemetrySdk.builder()
+            .setTracerProvider(SdkTracerProvider.builder().addSpanProcessor(SimpleSpanProcessor.create(spanExporter)).build())
+            .build());
+
+    @Test
+    void nestedCallsShareOneTrace() {
+        String result = telemetry.observe("outer", Tags.of("method", "login"),
+                () -> telemetry.observe("inner", Tags.empty(), () -> "token"));
+
+        assertEquals("token", result);
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        assertEquals(2, spans.size());
+        SpanData inner = spans.get(0);
+        SpanData outer = spans.get(1);
+        assertEquals("inner", inner.getName());
+        assertEquals(outer.getSpanId(), inner.getParentSpanId());
+        assertEquals(outer.getTraceId(), inner.getTraceId());
+        assertEquals("login", outer.getAttributes().asMap().values().iterator().next());
+
+        Timer timer = meterRegistry.get("outer").tags("method", "login", "exception", "none").timer();
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void failuresAreTaggedAndRethrown() {
+        assertThrows(IllegalStateException.class, () -> telemetry.run("failing", Tags.empty(), () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        SpanData span = spanExporter.getFinishedSpanItems().get(0);
+        assertEquals(StatusCode.ERROR, span.getStatus().getStatusCode());
+        assertEquals(1, meterRegistry.get("failing").tag("exception", "IllegalStateException").timer().count());
+    }
+}
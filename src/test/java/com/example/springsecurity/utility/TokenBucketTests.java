@@ -0,0 +1,21 @@
+package com.example.springsecurity.utility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTests {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void burstIsAllowedThenRequestsAreRefilledOverTime() {
+        TokenBucket bucket = new TokenBucket(60, 3, 0);
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertFalse(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(SECOND));
+        assertFalse(bucket.tryConsume(SECOND));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.springsecurity.utility;
+
+import com.example.springsecurity.domain.UserImportRow;
+import com.example.springsecurity.domain.UserSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserExportWriterTests {
+
+    @Test
+    void quotesSeparatorsQuotesAndLineBreaks() {
+        assertEquals("a,\"b,c\",\"say \"\"hi\"\"\",\"x\ry\",\n", UserExportWriter.csvLine("a", "b,c", "say \"hi\"", "x\ry", null));
+    }
+
+    @Test
+    void guardsValuesThatStartLikeFormulas() {
+        assertEquals("'=HYPERLINK(1),'+1,'-1,'@sum,plain\n", UserExportWriter.csvLine("=HYPERLINK(1)", "+1", "-1", "@sum", "plain"));
+        assertEquals("\"'=1,2\"\n", UserExportWriter.csvLine("=1,2"));
+    }
+
+    @Test
+    void exportReadsBackUnchanged() throws IOException {
+        StringWriter csv = new StringWriter();
+        UserExportWriter writer = new UserExportWriter(csv);
+        writer.writeHeader();
+        writer.write(new UserSummary(1L, "1234567890", "=cmd|' /C calc'!A0", "Doe, \"Jr.\"", "jdoe",
+                "jdoe@example.com", null, null, null, null, "ROLE_USER", true, false));
+        writer.flush();
+
+        UserImportReader reader = new UserImportReader(new BufferedReader(new StringReader(csv.toString())), true, new ObjectMapper());
+        UserImportRow row = reader.next();
+        assertEquals("=cmd|' /C calc'!A0", row.getFirstname());
+        assertEquals("Doe, \"Jr.\"", row.getLastname());
+        assertEquals("ROLE_USER", row.getRole());
+        assertEquals("true", row.getIsActive());
+        assertEquals("false", row.getIsNonLocked());
+        assertFalse(reader.hasNext());
+    }
+}
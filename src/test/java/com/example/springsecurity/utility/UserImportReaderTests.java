@@ -0,0 +1,50 @@
+package com.example.springsecurity.utility;
+
+import com.example.springsecurity.domain.UserImportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportReaderTests {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsCsvByHeaderName() {
+        List<UserImportRow> rows = read("username,email,firstname,lastname,role\n"
+                + "\n"
+                + "jdoe,jdoe@example.com,John,\"Doe, Jr.\",ROLE_USER\n"
+                + "\"a\"\"b\",ab@example.com,A,B,ROLE_HR\n", true);
+
+        assertEquals(2, rows.size());
+        assertEquals("jdoe", rows.get(0).getUsername());
+        assertEquals("Doe, Jr.", rows.get(0).getLastname());
+        assertEquals(3, rows.get(0).getLine());
+        assertEquals("a\"b", rows.get(1).getUsername());
+        assertEquals("ROLE_HR", rows.get(1).getRole());
+    }
+
+    @Test
+    void reportsUnparsableJsonLinesInsteadOfFailing() {
+        List<UserImportRow> rows = read("{\"username\":\"jdoe\",\"email\":\"jdoe@example.com\",\"isActive\":\"false\"}\n"
+                + "{not json\n", false);
+
+        assertEquals(2, rows.size());
+        assertEquals("false", rows.get(0).getIsActive());
+        assertNull(rows.get(0).getParseError());
+        assertNotNull(rows.get(1).getParseError());
+        assertEquals(2, rows.get(1).getLine());
+    }
+
+    private List<UserImportRow> read(String input, boolean csv) {
+        UserImportReader reader = new UserImportReader(new BufferedReader(new StringReader(input)), csv, objectMapper);
+        List<UserImportRow> rows = new ArrayList<>();
+        reader.forEachRemaining(rows::add);
+        return rows;
+    }
+}